@@ -9,5 +9,6 @@ public class KafkaTopics {
     public static final String JOIN_REQUEST_DECLINED = "join.request.declined";
     public static final String RATING_SUBMITTED = "rating.submitted";
     public static final String USER_LOCATION_UPDATED = "user.location.updated";
+    public static final String LOCATION_LATEST = "location-latest";
     public static final String NOTIFICATION = "notification";
 }
@@ -0,0 +1,55 @@
+package com.socialize.common.kafka;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary value of the compacted location-latest topic.
+ *
+ * Records are keyed by the user ID as a string. The value is 29 bytes,
+ * big-endian:
+ * <pre>
+ *   0  byte    format version (1)
+ *   1  double  latitude
+ *   9  double  longitude
+ *  17  float   accuracy in meters, NaN when unknown
+ *  21  long    reading time, epoch milliseconds
+ * </pre>
+ */
+public final class LatestLocationCodec {
+
+    public static final byte VERSION = 1;
+    public static final int SIZE = 29;
+
+    private LatestLocationCodec() {
+    }
+
+    public static byte[] encode(LatestLocation location) {
+        return ByteBuffer.allocate(SIZE)
+            .put(VERSION)
+            .putDouble(location.latitude())
+            .putDouble(location.longitude())
+            .putFloat(location.accuracy() != null ? location.accuracy().floatValue() : Float.NaN)
+            .putLong(location.timestampMillis())
+            .array();
+    }
+
+    public static LatestLocation decode(byte[] value) {
+        if (value == null || value.length < SIZE || value[0] != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " latest location value");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(value, 1, SIZE - 1);
+        double latitude = buffer.getDouble();
+        double longitude = buffer.getDouble();
+        float accuracy = buffer.getFloat();
+        long timestampMillis = buffer.getLong();
+        return new LatestLocation(latitude, longitude,
+            Float.isNaN(accuracy) ? null : (double) accuracy, timestampMillis);
+    }
+
+    public record LatestLocation(
+        double latitude,
+        double longitude,
+        Double accuracy,
+        long timestampMillis
+    ) {}
+}
@@ -1,9 +1,14 @@
 package com.socialize.event.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
 @Configuration
 public class KafkaConfig {
@@ -15,5 +20,17 @@ public class KafkaConfig {
                 .replicas(1)
                 .build();
     }
-}
 
+    /**
+     * JSON event values write dates as ISO-8601 strings; Spring Kafka's own
+     * mapper would write LocalDateTime as a number array
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer isoDateJsonSerializer(ObjectMapper objectMapper) {
+        ObjectMapper kafkaMapper = objectMapper.copy()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return producerFactory -> ((DefaultKafkaProducerFactory<Object, Object>) producerFactory)
+                .setValueSerializerSupplier(() -> new JsonSerializer<>(kafkaMapper));
+    }
+}
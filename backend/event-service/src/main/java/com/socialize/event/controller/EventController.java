@@ -69,6 +69,12 @@ public class EventController {
         return ResponseEntity.ok(ApiResponse.success(pageResponse));
     }
 
+    @GetMapping("/active")
+    public ResponseEntity<ApiResponse<List<EventDTO>>> getActiveEvents() {
+        List<EventDTO> events = eventService.getActiveEvents();
+        return ResponseEntity.ok(ApiResponse.success(events));
+    }
+
     @GetMapping("/nearby")
     public ResponseEntity<ApiResponse<List<EventDTO>>> getNearbyEvents(
             @RequestParam Double latitude,
@@ -160,6 +166,14 @@ public class EventController {
         return ResponseEntity.ok(ApiResponse.success(participants));
     }
 
+    @PostMapping("/users/active")
+    public ResponseEntity<ApiResponse<List<Long>>> findUsersWithActiveEvents(
+            @Valid @RequestBody ActiveEventsCheckRequest request) {
+        
+        List<Long> userIds = eventService.findUsersWithActiveEvents(request.getUserIds());
+        return ResponseEntity.ok(ApiResponse.success(userIds));
+    }
+
     @GetMapping("/user/{userId}/participations")
     public ResponseEntity<ApiResponse<List<ParticipantDTO>>> getUserEvents(
             @PathVariable Long userId) {
@@ -0,0 +1,19 @@
+package com.socialize.event.model.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveEventsCheckRequest {
+
+    @NotEmpty(message = "User IDs are required")
+    @Size(max = 500, message = "At most 500 users can be checked at once")
+    private List<Long> userIds;
+}
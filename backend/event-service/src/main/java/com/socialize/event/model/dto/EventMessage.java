@@ -15,9 +15,17 @@ public class EventMessage {
     private Long eventId;
     private Long hostId;
     private String eventTitle;
+    private String eventDescription;
     private String eventType;
     private Long userId;
     private String status;
+    private String eventStatus;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer maxParticipants;
+    private Integer currentParticipants;
     private LocalDateTime timestamp;
 }
 
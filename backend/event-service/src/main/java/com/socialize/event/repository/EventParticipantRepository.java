@@ -1,5 +1,6 @@
 package com.socialize.event.repository;
 
+import com.socialize.event.model.entity.Event;
 import com.socialize.event.model.entity.EventParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -22,6 +23,12 @@ public interface EventParticipantRepository extends JpaRepository<EventParticipa
     Long countByEventIdAndStatus(@Param("eventId") Long eventId, 
                                  @Param("status") EventParticipant.ParticipantStatus status);
 
+    @Query("SELECT DISTINCT p.userId FROM EventParticipant p WHERE p.userId IN :userIds " +
+           "AND p.status = :status AND p.event.status IN :eventStatuses")
+    List<Long> findParticipantIdsWithEventStatus(@Param("userIds") List<Long> userIds,
+                                                 @Param("status") EventParticipant.ParticipantStatus status,
+                                                 @Param("eventStatuses") List<Event.EventStatus> eventStatuses);
+
     Boolean existsByEventIdAndUserId(Long eventId, Long userId);
 
     List<EventParticipant> findByEventIdAndStatus(Long eventId, EventParticipant.ParticipantStatus status);
@@ -22,6 +22,8 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     Page<Event> findByStatus(Event.EventStatus status, Pageable pageable);
 
+    List<Event> findByStatusIn(List<Event.EventStatus> statuses);
+
     @Query("SELECT e FROM Event e WHERE e.status = :status AND e.startTime > :now")
     Page<Event> findUpcomingEvents(@Param("status") Event.EventStatus status, 
                                    @Param("now") LocalDateTime now, 
@@ -39,6 +41,10 @@ public interface EventRepository extends JpaRepository<Event, Long> {
                                  @Param("longitude") Double longitude,
                                  @Param("radiusKm") Double radiusKm);
 
+    @Query("SELECT DISTINCT e.hostId FROM Event e WHERE e.hostId IN :hostIds AND e.status IN :statuses")
+    List<Long> findHostIdsWithEventStatus(@Param("hostIds") List<Long> hostIds,
+                                          @Param("statuses") List<Event.EventStatus> statuses);
+
     List<Event> findByStatusAndStartTimeBetween(Event.EventStatus status, 
                                                 LocalDateTime start, 
                                                 LocalDateTime end);
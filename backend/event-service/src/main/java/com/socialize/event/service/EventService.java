@@ -17,7 +17,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -60,7 +62,7 @@ public class EventService {
         logger.info("Event created with ID: {}", event.getId());
 
         // Publish event created message to Kafka
-        publishEventMessage(event.getId(), hostId, event.getTitle(), "EVENT_CREATED", null, null);
+        publishEventMessage(event, "EVENT_CREATED", null, null);
 
         return mapToDTO(event);
     }
@@ -81,6 +83,13 @@ public class EventService {
                 .map(this::mapToDTO);
     }
 
+    public List<EventDTO> getActiveEvents() {
+        return eventRepository.findByStatusIn(List.of(Event.EventStatus.UPCOMING, Event.EventStatus.ONGOING))
+                .stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
     public List<EventDTO> getNearbyEvents(Double latitude, Double longitude, Double radiusKm) {
         List<Event> events = eventRepository.findNearbyEvents(latitude, longitude, radiusKm);
         return events.stream()
@@ -123,7 +132,7 @@ public class EventService {
         event = eventRepository.save(event);
         logger.info("Event updated: {}", eventId);
 
-        publishEventMessage(eventId, hostId, event.getTitle(), "EVENT_UPDATED", null, null);
+        publishEventMessage(event, "EVENT_UPDATED", null, null);
 
         return mapToDTO(event);
     }
@@ -141,7 +150,7 @@ public class EventService {
         eventRepository.save(event);
         logger.info("Event cancelled: {}", eventId);
 
-        publishEventMessage(eventId, hostId, event.getTitle(), "EVENT_CANCELLED", null, null);
+        publishEventMessage(event, "EVENT_CANCELLED", null, null);
     }
 
     @Transactional
@@ -177,7 +186,7 @@ public class EventService {
         participant = participantRepository.save(participant);
         logger.info("User {} requested to join event {}", userId, eventId);
 
-        publishEventMessage(eventId, event.getHostId(), event.getTitle(), "JOIN_REQUEST", userId, "PENDING");
+        publishEventMessage(event, "JOIN_REQUEST", userId, "PENDING");
 
         return mapParticipantToDTO(participant);
     }
@@ -202,7 +211,7 @@ public class EventService {
         participant = participantRepository.save(participant);
         logger.info("Participant {} approved for event {}", participantId, eventId);
 
-        publishEventMessage(eventId, hostId, event.getTitle(), "JOIN_APPROVED", participant.getUserId(), "APPROVED");
+        publishEventMessage(event, "JOIN_APPROVED", participant.getUserId(), "APPROVED");
 
         return mapParticipantToDTO(participant);
     }
@@ -227,7 +236,7 @@ public class EventService {
         participant = participantRepository.save(participant);
         logger.info("Participant {} declined for event {}", participantId, eventId);
 
-        publishEventMessage(eventId, hostId, event.getTitle(), "JOIN_DECLINED", participant.getUserId(), "DECLINED");
+        publishEventMessage(event, "JOIN_DECLINED", participant.getUserId(), "DECLINED");
 
         return mapParticipantToDTO(participant);
     }
@@ -246,6 +255,21 @@ public class EventService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Of the given users, those hosting or approved for an upcoming or ongoing event
+     */
+    public List<Long> findUsersWithActiveEvents(List<Long> userIds) {
+        List<Event.EventStatus> activeStatuses = List.of(
+                Event.EventStatus.UPCOMING, Event.EventStatus.ONGOING);
+
+        Set<Long> activeUserIds = new HashSet<>(
+                eventRepository.findHostIdsWithEventStatus(userIds, activeStatuses));
+        activeUserIds.addAll(participantRepository.findParticipantIdsWithEventStatus(
+                userIds, EventParticipant.ParticipantStatus.APPROVED, activeStatuses));
+
+        return List.copyOf(activeUserIds);
+    }
+
     private void validateEventTimes(LocalDateTime startTime, LocalDateTime endTime) {
         if (startTime.isBefore(LocalDateTime.now())) {
             throw new BadRequestException("Start time must be in the future");
@@ -255,16 +279,24 @@ public class EventService {
         }
     }
 
-    private void publishEventMessage(Long eventId, Long hostId, String title, 
-                                    String type, Long userId, String status) {
+    private void publishEventMessage(Event event, String type, Long userId, String status) {
         try {
             EventMessage message = EventMessage.builder()
-                    .eventId(eventId)
-                    .hostId(hostId)
-                    .eventTitle(title)
+                    .eventId(event.getId())
+                    .hostId(event.getHostId())
+                    .eventTitle(event.getTitle())
+                    .eventDescription(event.getDescription())
                     .eventType(type)
                     .userId(userId)
                     .status(status)
+                    .eventStatus(event.getStatus().name())
+                    .latitude(event.getLatitude())
+                    .longitude(event.getLongitude())
+                    .startTime(event.getStartTime())
+                    .endTime(event.getEndTime())
+                    .maxParticipants(event.getMaxParticipants())
+                    .currentParticipants(participantRepository.countByEventIdAndStatus(
+                            event.getId(), EventParticipant.ParticipantStatus.APPROVED).intValue())
                     .timestamp(LocalDateTime.now())
                     .build();
 
@@ -0,0 +1,69 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.service.DistanceCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearby candidate filtering against synthetic users spread over a
+ * metro-sized area (about 110 x 70 km)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SpatialGridIndexBenchmark {
+
+    private static final double CENTER_LAT = 52.52;
+    private static final double CENTER_LON = 13.405;
+    private static final double SPREAD_DEGREES = 0.5;
+
+    @Param({"10000", "100000", "1000000"})
+    public int users;
+
+    @Param({"1000", "10000"})
+    public double radius;
+
+    private SpatialGridIndex index;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocationProperties properties = new LocationProperties();
+        index = new SpatialGridIndex(new DistanceCalculator(properties), properties);
+        random = new SplittableRandom(42);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (long userId = 1; userId <= users; userId++) {
+            index.upsert(new IndexedLocation(userId,
+                CENTER_LAT + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES),
+                CENTER_LON + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES),
+                10.0, now));
+        }
+    }
+
+    @Benchmark
+    public List<NearbyCandidate> findWithinRadius() {
+        return index.findWithinRadius(probeLatitude(), probeLongitude(), radius, 0L);
+    }
+
+    @Benchmark
+    public long countWithinRadius() {
+        return index.countWithinRadius(probeLatitude(), probeLongitude(), radius, 0L);
+    }
+
+    private double probeLatitude() {
+        return CENTER_LAT + random.nextDouble(-SPREAD_DEGREES / 2, SPREAD_DEGREES / 2);
+    }
+
+    private double probeLongitude() {
+        return CENTER_LON + random.nextDouble(-SPREAD_DEGREES / 2, SPREAD_DEGREES / 2);
+    }
+}
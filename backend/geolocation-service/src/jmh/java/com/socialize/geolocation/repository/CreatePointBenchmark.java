@@ -0,0 +1,28 @@
+package com.socialize.geolocation.repository;
+
+import org.locationtech.jts.geom.Point;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a JTS point for spatial queries and entities
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatePointBenchmark {
+
+    private final CustomLocationRepository repository = new CustomLocationRepository();
+
+    private Double latitude = 52.52;
+    private Double longitude = 13.405;
+
+    @Benchmark
+    public Point createPoint() {
+        return repository.createPoint(latitude, longitude);
+    }
+}
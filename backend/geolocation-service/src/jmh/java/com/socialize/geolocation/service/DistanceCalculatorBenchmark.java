@@ -0,0 +1,85 @@
+package com.socialize.geolocation.service;
+
+import com.socialize.geolocation.config.LocationProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boxed vs primitive distance evaluation over short (city-scale) pairs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceCalculatorBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private final DistanceCalculator distanceCalculator = new DistanceCalculator(new LocationProperties());
+
+    private double originLat;
+    private double originLon;
+    private double[] lats;
+    private double[] lons;
+    private double[] cosLats;
+    private Double[] boxedLats;
+    private Double[] boxedLons;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        originLat = 52.52;
+        originLon = 13.405;
+        lats = new double[POINTS];
+        lons = new double[POINTS];
+        boxedLats = new Double[POINTS];
+        boxedLons = new Double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            lats[i] = originLat + random.nextDouble(-0.1, 0.1);
+            lons[i] = originLon + random.nextDouble(-0.1, 0.1);
+            boxedLats[i] = lats[i];
+            boxedLons[i] = lons[i];
+        }
+        cosLats = DistanceCalculator.cosines(lats, POINTS);
+        out = new double[POINTS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void boxed(Blackhole blackhole) {
+        Double lat = originLat;
+        Double lon = originLon;
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(distanceCalculator.calculateDistance(lat, lon, boxedLats[i], boxedLons[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void primitiveHaversine(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(distanceCalculator.haversine(originLat, originLon, lats[i], lons[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void primitive(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(distanceCalculator.distance(originLat, originLon, lats[i], lons[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double[] batch() {
+        distanceCalculator.distances(originLat, originLon, lats, lons, cosLats, POINTS, out);
+        return out;
+    }
+}
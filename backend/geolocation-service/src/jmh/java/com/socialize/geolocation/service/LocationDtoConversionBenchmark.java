@@ -0,0 +1,55 @@
+package com.socialize.geolocation.service;
+
+import com.socialize.geolocation.ingest.LocationPing;
+import com.socialize.geolocation.model.dto.LocationDTO;
+import com.socialize.geolocation.model.entity.UserLocation;
+import com.socialize.geolocation.repository.CustomLocationRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity and ingest ping to {@link LocationDTO} conversion
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocationDtoConversionBenchmark {
+
+    private UserLocation location;
+    private LocationPing ping;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        location = UserLocation.builder()
+            .id(1L)
+            .userId(42L)
+            .latitude(52.52)
+            .longitude(13.405)
+            .locationPoint(new CustomLocationRepository().createPoint(52.52, 13.405))
+            .accuracy(8.0)
+            .altitude(34.0)
+            .speed(1.4)
+            .heading(90.0)
+            .timestamp(now)
+            .deviceId("device-1")
+            .provider("GPS")
+            .build();
+        ping = new LocationPing(42L, 52.52, 13.405, 8.0, 34.0, 1.4, 90.0, "device-1", "GPS", now);
+    }
+
+    @Benchmark
+    public LocationDTO fromEntity() {
+        return LocationMapper.toLocationDTO(location);
+    }
+
+    @Benchmark
+    public LocationDTO fromPing() {
+        return LocationMapper.toLocationDTO(ping);
+    }
+}
@@ -1,23 +1,46 @@
 package com.socialize.geolocation.client;
 
-import com.socialize.geolocation.model.dto.NearbyEventDTO;
+import com.socialize.common.dto.ApiResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @FeignClient(name = "event-service", path = "/api/events")
 public interface EventServiceClient {
     
-    @GetMapping("/nearby")
-    List<NearbyEventDTO> getNearbyEvents(
-        @RequestParam("lat") Double latitude,
-        @RequestParam("lng") Double longitude,
-        @RequestParam("radius") Double radius
-    );
+    /**
+     * Upcoming and ongoing events, used to resync the local event index
+     */
+    @GetMapping("/active")
+    ApiResponse<List<ActiveEventDTO>> getActiveEvents();
     
     @GetMapping("/user/{userId}/active/exists")
     boolean hasActiveEvents(@PathVariable("userId") Long userId);
-}
\ No newline at end of file
+    
+    /**
+     * Subset of the given users hosting or attending an upcoming or ongoing event
+     */
+    @PostMapping("/users/active")
+    ApiResponse<List<Long>> findUsersWithActiveEvents(@RequestBody ActiveEventsCheckRequest request);
+    
+    record ActiveEventsCheckRequest(List<Long> userIds) {}
+    
+    record ActiveEventDTO(
+        Long id,
+        Long hostId,
+        String title,
+        String description,
+        EventLocationDTO location,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Integer maxParticipants,
+        Integer currentParticipants
+    ) {}
+    
+    record EventLocationDTO(Double latitude, Double longitude, String address) {}
+}
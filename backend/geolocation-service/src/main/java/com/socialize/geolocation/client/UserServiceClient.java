@@ -1,8 +1,13 @@
 package com.socialize.geolocation.client;
 
+import com.socialize.common.dto.ApiResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient(name = "user-service", path = "/api/users")
 public interface UserServiceClient {
@@ -10,6 +15,9 @@ public interface UserServiceClient {
     @GetMapping("/{userId}")
     UserDTO getUserById(@PathVariable("userId") Long userId);
     
+    @PostMapping("/batch")
+    ApiResponse<List<UserDTO>> getUsersByIds(@RequestBody BatchUserRequest request);
+    
     // DTO for User Service response
     record UserDTO(
         Long id,
@@ -18,4 +26,6 @@ public interface UserServiceClient {
         String profileImageUrl,
         Double averageRating
     ) {}
-}
\ No newline at end of file
+    
+    record BatchUserRequest(List<Long> userIds) {}
+}
@@ -0,0 +1,31 @@
+package com.socialize.geolocation.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+@RequiredArgsConstructor
+public class EnrichmentConfig {
+    
+    private final LocationProperties locationProperties;
+    
+    /**
+     * Executor for fanning out user/event lookups. Wrapped so the caller's
+     * security context (and with it the forwarded JWT) reaches Feign.
+     */
+    @Bean
+    public Executor enrichmentExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(locationProperties.getEnrichmentPoolSize());
+        executor.setMaxPoolSize(locationProperties.getEnrichmentPoolSize());
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("enrichment-");
+        executor.initialize();
+        return new DelegatingSecurityContextExecutor(executor);
+    }
+}
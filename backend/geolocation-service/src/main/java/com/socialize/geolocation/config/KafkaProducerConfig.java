@@ -0,0 +1,26 @@
+package com.socialize.geolocation.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+@Configuration
+public class KafkaProducerConfig {
+    
+    /**
+     * JSON event values write dates as ISO-8601 strings; Spring Kafka's own
+     * mapper would write LocalDateTime as a number array
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer isoDateJsonSerializer(ObjectMapper objectMapper) {
+        ObjectMapper kafkaMapper = objectMapper.copy()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return producerFactory -> ((DefaultKafkaProducerFactory<Object, Object>) producerFactory)
+            .setValueSerializerSupplier(() -> new JsonSerializer<>(kafkaMapper));
+    }
+}
@@ -1,6 +1,7 @@
 package com.socialize.geolocation.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +16,15 @@ public class KafkaTopicConfig {
     @Value("${kafka.topics.location-batch-updates}")
     private String batchUpdatesTopic;
     
+    @Value("${kafka.topics.geofence-events}")
+    private String geofenceEventsTopic;
+    
+    @Value("${kafka.topics.buddy-nearby}")
+    private String buddyNearbyTopic;
+    
+    @Value("${kafka.topics.location-latest}")
+    private String locationLatestTopic;
+    
     @Bean
     public NewTopic locationUpdatesTopic() {
         return TopicBuilder.name(locationUpdatesTopic)
@@ -30,4 +40,35 @@ public class KafkaTopicConfig {
                 .replicas(1)
                 .build();
     }
-}
\ No newline at end of file
+    
+    @Bean
+    public NewTopic geofenceEventsTopic() {
+        return TopicBuilder.name(geofenceEventsTopic)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+    
+    @Bean
+    public NewTopic buddyNearbyTopic() {
+        return TopicBuilder.name(buddyNearbyTopic)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+    
+    /**
+     * One record per user; compaction keeps only the newest position
+     */
+    @Bean
+    public NewTopic locationLatestTopic() {
+        return TopicBuilder.name(locationLatestTopic)
+                .partitions(6)
+                .replicas(1)
+                .compact()
+                .config(TopicConfig.MIN_COMPACTION_LAG_MS_CONFIG, "60000")
+                .config(TopicConfig.SEGMENT_MS_CONFIG, "3600000")
+                .config(TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG, "0.1")
+                .build();
+    }
+}
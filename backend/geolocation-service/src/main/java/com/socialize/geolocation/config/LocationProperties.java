@@ -10,8 +10,67 @@ import org.springframework.context.annotation.Configuration;
 public class LocationProperties {
     private Integer defaultSearchRadius = 10000;
     private Integer maxSearchRadius = 50000;
+    private Integer maxNearbyResults = 500;
+    private Integer maxCountResults = 10000;
     private Integer updateInterval = 30;
+    private Integer minUpdateInterval = 5;
+    private Integer maxUpdateInterval = 300;
+    private Double targetUpdateDisplacementMeters = 100.0;
+    private Double denseAreaRadius = 500.0;
+    private Integer denseAreaUserCount = 50;
+    private Double updateBackoffLoadThreshold = 0.5;
+    private Double maxUpdateBackoff = 4.0;
+    private String store = "local";
+    private Integer summaryRadius = 10000;
+    private Integer summaryTtlHours = 24;
     private Integer historyRetentionDays = 30;
+    private Integer historyPartitionAheadDays = 7;
+    private Boolean historyWindowEnabled = true;
+    private Integer historyWindowHours = 24;
+    private Integer historyWindowMaxMb = 256;
+    private Long historyWindowSweepIntervalMs = 60000L;
     private Integer accuracyThreshold = 100;
+    private Double thinningToleranceMeters = 25.0;
+    private Integer thinningMaxGapSeconds = 300;
+    private Double stationarySpeedThreshold = 0.5;
     private Integer batchSize = 100;
+    private Double gridCellSizeDegrees = 0.01;
+    private Double fastDistanceThresholdMeters = 20000.0;
+    private String snapshotPath = "data/spatial-index.snap";
+    private Long snapshotIntervalMs = 300000L;
+    private Long snapshotReplayMarginMs = 5000L;
+    private Double eventCellSizeDegrees = 0.05;
+    private Long eventIndexReloadIntervalMs = 600000L;
+    private Long eventIndexEvictionIntervalMs = 60000L;
+    private Double geofenceCellSizeDegrees = 0.05;
+    private Long geofenceReloadIntervalMs = 60000L;
+    private Double proximityExitFactor = 1.25;
+    private Integer proximityCooldownMinutes = 30;
+    private Long proximityReloadIntervalMs = 60000L;
+    private Integer enrichmentPoolSize = 8;
+    private Long enrichmentTimeoutMs = 800L;
+    private Integer profileCacheTtlSeconds = 60;
+    private Long subscriptionTimeoutMs = 1800000L;
+    private Double subscriptionCellSizeDegrees = 0.05;
+    private Integer subscriptionMaxPendingEvents = 1000;
+    private Integer subscriptionPoolSize = 4;
+    private Double streamPingsPerSecond = 1.0;
+    private Integer streamBurst = 60;
+    private Integer streamMaxPingsPerFrame = 60;
+    private Long streamIdleTimeoutMs = 120000L;
+    private Long streamSendTimeLimitMs = 5000L;
+    private Integer streamSendBufferSize = 8192;
+    private Boolean shardingEnabled = false;
+    private Integer shardPrecision = 3;
+    private Integer shardVirtualNodes = 128;
+    private Long shardRingRefreshMs = 30000L;
+    private Long shardTimeoutMs = 500L;
+    private Integer shardPoolSize = 8;
+    private String shardSecret;
+    private Integer ingestQueueCapacity = 10000;
+    private Long ingestFlushIntervalMs = 500L;
+    private Integer ingestMaxFlushSize = 2000;
+    private Long ingestOfferTimeoutMs = 50L;
+    private Integer ingestFlushMaxAttempts = 3;
+    private Long ingestFlushRetryBackoffMs = 200L;
 }
\ No newline at end of file
@@ -1,18 +1,24 @@
 package com.socialize.geolocation.config;
 
+import com.socialize.geolocation.shard.ShardClient;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.List;
 
@@ -22,6 +28,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
     
+    private final LocationProperties locationProperties;
+    
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -32,8 +40,11 @@ public class SecurityConfig {
                     "/api-docs/**",
                     "/swagger-ui/**",
                     "/swagger-ui.html",
-                    "/actuator/**"
+                    "/actuator/**",
+                    "/ws/locations"
                 ).permitAll()
+                .requestMatchers("/internal/shards/**").access((authentication, context) ->
+                    new AuthorizationDecision(hasShardToken(context.getRequest())))
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
@@ -43,6 +54,17 @@ public class SecurityConfig {
         return http.build();
     }
     
+    /**
+     * Whether a request to the internal shard endpoints carries the secret
+     * shared by the instances. Nothing passes while none is configured.
+     */
+    private boolean hasShardToken(HttpServletRequest request) {
+        String secret = locationProperties.getShardSecret();
+        String token = request.getHeader(ShardClient.SHARD_TOKEN_HEADER);
+        return StringUtils.hasText(secret) && token != null
+            && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+    
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,29 @@
+package com.socialize.geolocation.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+@RequiredArgsConstructor
+public class ShardConfig {
+    
+    private final LocationProperties locationProperties;
+    
+    /**
+     * Executor for scatter/gather calls to other shards and handoffs
+     */
+    @Bean
+    public Executor shardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(locationProperties.getShardPoolSize());
+        executor.setMaxPoolSize(locationProperties.getShardPoolSize());
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("shard-");
+        executor.initialize();
+        return executor;
+    }
+}
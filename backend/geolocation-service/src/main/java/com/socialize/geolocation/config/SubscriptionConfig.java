@@ -0,0 +1,29 @@
+package com.socialize.geolocation.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+@RequiredArgsConstructor
+public class SubscriptionConfig {
+    
+    private final LocationProperties locationProperties;
+    
+    /**
+     * Executor that writes queued events to nearby-buddies subscribers,
+     * keeping socket writes off the location update path
+     */
+    @Bean
+    public Executor nearbySubscriptionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(locationProperties.getSubscriptionPoolSize());
+        executor.setMaxPoolSize(locationProperties.getSubscriptionPoolSize());
+        executor.setThreadNamePrefix("nearby-push-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,44 @@
+package com.socialize.geolocation.config;
+
+import com.socialize.geolocation.websocket.JwtHandshakeInterceptor;
+import com.socialize.geolocation.websocket.LocationStreamHandler;
+import com.socialize.geolocation.websocket.PingFrameCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+    
+    private final LocationStreamHandler locationStreamHandler;
+    private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
+    private final LocationProperties locationProperties;
+    
+    @Value("${websocket.allowed-origins}")
+    private String allowedOrigins;
+    
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Binary location stream; authenticated once at the handshake
+        registry.addHandler(locationStreamHandler, "/ws/locations")
+                .addInterceptors(jwtHandshakeInterceptor)
+                .setAllowedOrigins(allowedOrigins.split(","));
+    }
+    
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        // Larger frames are refused by the container before reaching the handler
+        container.setMaxBinaryMessageBufferSize(
+            locationProperties.getStreamMaxPingsPerFrame() * PingFrameCodec.PING_SIZE);
+        container.setMaxSessionIdleTimeout(locationProperties.getStreamIdleTimeoutMs());
+        return container;
+    }
+}
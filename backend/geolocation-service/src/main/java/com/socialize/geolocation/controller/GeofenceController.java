@@ -0,0 +1,66 @@
+package com.socialize.geolocation.controller;
+
+import com.socialize.geolocation.model.dto.GeofenceDTO;
+import com.socialize.geolocation.model.dto.GeofenceRequest;
+import com.socialize.geolocation.service.GeofenceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/geofences")
+@RequiredArgsConstructor
+@Tag(name = "Geofence Management", description = "APIs for managing geofences")
+public class GeofenceController {
+    
+    private final GeofenceService geofenceService;
+    
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Create a geofence")
+    public ResponseEntity<GeofenceDTO> createGeofence(
+            @Valid @RequestBody GeofenceRequest request,
+            Principal principal) {
+        
+        Long userId = extractUserId(principal);
+        GeofenceDTO geofence = geofenceService.createGeofence(userId, request);
+        return new ResponseEntity<>(geofence, HttpStatus.CREATED);
+    }
+    
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get my active geofences")
+    public ResponseEntity<List<GeofenceDTO>> getMyGeofences(Principal principal) {
+        Long userId = extractUserId(principal);
+        return ResponseEntity.ok(geofenceService.getGeofences(userId));
+    }
+    
+    @DeleteMapping("/{geofenceId}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Deactivate a geofence")
+    public ResponseEntity<Void> deactivateGeofence(
+            @PathVariable Long geofenceId,
+            Principal principal) {
+        
+        Long userId = extractUserId(principal);
+        geofenceService.deactivateGeofence(userId, geofenceId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    private Long extractUserId(Principal principal) {
+        // Extract user ID from JWT token
+        try {
+            return Long.parseLong(principal.getName());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
@@ -2,15 +2,18 @@ package com.socialize.geolocation.controller;
 
 import com.socialize.geolocation.model.dto.*;
 import com.socialize.geolocation.service.LocationService;
+import com.socialize.geolocation.subscription.NearbySubscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
 import java.util.List;
@@ -22,6 +25,7 @@ import java.util.List;
 public class LocationController {
     
     private final LocationService locationService;
+    private final NearbySubscriptionService nearbySubscriptionService;
     
     @PostMapping("/update")
     @PreAuthorize("isAuthenticated()")
@@ -67,6 +71,47 @@ public class LocationController {
         return ResponseEntity.ok(nearbyUsers);
     }
     
+    @GetMapping("/nearby/buddies/nearest")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Find the nearest buddies")
+    public ResponseEntity<List<NearbyUserDTO>> findNearestBuddies(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(defaultValue = "20") Integer k,
+            @RequestParam(defaultValue = "50000") Double radius,
+            Principal principal) {
+        
+        Long userId = extractUserId(principal);
+        List<NearbyUserDTO> nearestUsers = locationService
+            .findNearestBuddies(userId, lat, lng, k, radius);
+        return ResponseEntity.ok(nearestUsers);
+    }
+    
+    @GetMapping(value = "/nearby/buddies/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Subscribe to nearby buddy changes")
+    public SseEmitter subscribeNearbyBuddies(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(defaultValue = "10000") Double radius,
+            Principal principal) {
+        
+        Long userId = extractUserId(principal);
+        return nearbySubscriptionService.subscribe(userId, lat, lng, radius);
+    }
+    
+    @PostMapping("/area/users")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Find users inside an area")
+    public ResponseEntity<List<NearbyUserDTO>> findUsersInArea(
+            @Valid @RequestBody AreaSearchRequest request,
+            Principal principal) {
+        
+        Long userId = extractUserId(principal);
+        List<NearbyUserDTO> users = locationService.findUsersInArea(userId, request);
+        return ResponseEntity.ok(users);
+    }
+    
     @GetMapping("/nearby/events")
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "Find nearby events")
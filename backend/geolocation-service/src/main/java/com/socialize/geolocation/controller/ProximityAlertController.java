@@ -0,0 +1,66 @@
+package com.socialize.geolocation.controller;
+
+import com.socialize.geolocation.model.dto.ProximityAlertDTO;
+import com.socialize.geolocation.model.dto.ProximityAlertRequest;
+import com.socialize.geolocation.service.ProximityAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/proximity-alerts")
+@RequiredArgsConstructor
+@Tag(name = "Proximity Alerts", description = "APIs for buddy proximity alerts")
+public class ProximityAlertController {
+    
+    private final ProximityAlertService proximityAlertService;
+    
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get alerted when a buddy is near")
+    public ResponseEntity<ProximityAlertDTO> createAlert(
+            @Valid @RequestBody ProximityAlertRequest request,
+            Principal principal) {
+        
+        Long userId = extractUserId(principal);
+        ProximityAlertDTO alert = proximityAlertService.createAlert(userId, request);
+        return new ResponseEntity<>(alert, HttpStatus.CREATED);
+    }
+    
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get my proximity alerts")
+    public ResponseEntity<List<ProximityAlertDTO>> getMyAlerts(Principal principal) {
+        Long userId = extractUserId(principal);
+        return ResponseEntity.ok(proximityAlertService.getAlerts(userId));
+    }
+    
+    @DeleteMapping("/{buddyId}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Stop proximity alerts for a buddy")
+    public ResponseEntity<Void> deleteAlert(
+            @PathVariable Long buddyId,
+            Principal principal) {
+        
+        Long userId = extractUserId(principal);
+        proximityAlertService.deleteAlert(userId, buddyId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    private Long extractUserId(Principal principal) {
+        // Extract user ID from JWT token
+        try {
+            return Long.parseLong(principal.getName());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
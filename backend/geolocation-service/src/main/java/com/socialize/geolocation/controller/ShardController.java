@@ -0,0 +1,118 @@
+package com.socialize.geolocation.controller;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.model.dto.LocationDTO;
+import com.socialize.geolocation.model.dto.LocationUpdateRequest;
+import com.socialize.geolocation.service.LocationService;
+import com.socialize.geolocation.shard.ShardClient;
+import com.socialize.geolocation.shard.ShardedCurrentLocationStore;
+import com.socialize.geolocation.store.CurrentLocationStore;
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Instance-to-instance endpoints of a sharded deployment. They act on
+ * this instance's own regions only, are never routed by the gateway, and
+ * require the shared {@code location.shard-secret} (see {@link ShardClient}).
+ */
+@RestController
+@RequestMapping("/internal/shards")
+@ConditionalOnProperty(name = "location.sharding-enabled", havingValue = "true")
+@Validated
+@Hidden
+public class ShardController {
+    
+    private final LocationService locationService;
+    private final CurrentLocationStore localStore;
+    private final ShardedCurrentLocationStore shardedStore;
+    
+    public ShardController(
+            LocationService locationService,
+            @Qualifier(CurrentLocationStore.SHARD_LOCAL) CurrentLocationStore localStore,
+            ShardedCurrentLocationStore shardedStore,
+            LocationProperties locationProperties) {
+        if (!StringUtils.hasText(locationProperties.getShardSecret())) {
+            throw new IllegalStateException("location.shard-secret must be set when sharding is enabled");
+        }
+        this.locationService = locationService;
+        this.localStore = localStore;
+        this.shardedStore = shardedStore;
+    }
+    
+    @PostMapping("/users/{userId}/location")
+    public ResponseEntity<LocationDTO> acceptUpdate(
+            @PathVariable Long userId,
+            @Valid @RequestBody LocationUpdateRequest request) {
+        return ResponseEntity.ok(locationService.updateOwnedLocation(userId, request));
+    }
+    
+    @PostMapping("/users/{userId}/locations")
+    public ResponseEntity<Void> acceptBatch(
+            @PathVariable Long userId,
+            @RequestBody List<@Valid LocationUpdateRequest> requests) {
+        locationService.batchUpdateOwnedLocations(userId, requests);
+        return ResponseEntity.ok().build();
+    }
+    
+    @DeleteMapping("/users/{userId}/location")
+    public ResponseEntity<Void> handOff(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        // A reading newer than the new owner's means the user came back
+        localStore.get(userId)
+            .filter(location -> location.timestamp() == null || !location.timestamp().isAfter(asOf))
+            .ifPresent(location -> localStore.remove(userId));
+        return ResponseEntity.noContent().build();
+    }
+    
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyCandidate>> findWithinRadius(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam Double radius,
+            @RequestParam(required = false) Long exclude) {
+        return ResponseEntity.ok(shardedStore.findOwnedWithinRadius(lat, lng, radius, exclude));
+    }
+    
+    @GetMapping("/nearest")
+    public ResponseEntity<List<NearbyCandidate>> findNearest(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam Integer k,
+            @RequestParam Double radius,
+            @RequestParam(required = false) Long exclude) {
+        return ResponseEntity.ok(shardedStore.findOwnedNearest(lat, lng, k, radius, exclude));
+    }
+    
+    @GetMapping("/count")
+    public ResponseEntity<Long> countWithinRadius(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam Double radius,
+            @RequestParam(required = false) Long exclude) {
+        return ResponseEntity.ok(shardedStore.countOwnedWithinRadius(lat, lng, radius, exclude));
+    }
+    
+    @GetMapping("/bounds")
+    public ResponseEntity<List<IndexedLocation>> findInBounds(
+            @RequestParam Double minLat,
+            @RequestParam Double minLng,
+            @RequestParam Double maxLat,
+            @RequestParam Double maxLng,
+            @RequestParam(required = false) Long exclude) {
+        return ResponseEntity.ok(shardedStore.findOwnedInBounds(new GeoBounds(minLat, minLng, maxLat, maxLng), exclude));
+    }
+}
@@ -0,0 +1,11 @@
+package com.socialize.geolocation.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class GeofenceNotAllowedException extends RuntimeException {
+    public GeofenceNotAllowedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.socialize.geolocation.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class GeofenceNotFoundException extends RuntimeException {
+    public GeofenceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.socialize.geolocation.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IngestOverloadedException extends RuntimeException {
+    public IngestOverloadedException(String message) {
+        super(message);
+    }
+}
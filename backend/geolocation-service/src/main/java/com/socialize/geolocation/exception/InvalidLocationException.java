@@ -1,7 +1,11 @@
 package com.socialize.geolocation.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class InvalidLocationException extends RuntimeException {
     public InvalidLocationException(String message) {
         super(message);
     }
-}
\ No newline at end of file
+}
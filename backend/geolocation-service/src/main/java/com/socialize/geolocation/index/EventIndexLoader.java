@@ -0,0 +1,91 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.common.dto.ApiResponse;
+import com.socialize.geolocation.client.EventServiceClient;
+import com.socialize.geolocation.client.EventServiceClient.ActiveEventDTO;
+import com.socialize.geolocation.index.EventLocationIndex.EventLocation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Seeds the event index from event-service on startup and periodically
+ * resyncs it, so notifications missed while the consumer was down do
+ * not linger
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventIndexLoader {
+
+    private final EventServiceClient eventServiceClient;
+    private final EventLocationIndex eventLocationIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reloadIndex();
+    }
+
+    @Scheduled(fixedDelayString = "${location.event-index-reload-interval-ms:600000}",
+        initialDelayString = "${location.event-index-reload-interval-ms:600000}")
+    public void reloadIndex() {
+        try {
+            ApiResponse<List<ActiveEventDTO>> response = eventServiceClient.getActiveEvents();
+            if (response == null || response.getData() == null) {
+                log.warn("Event service returned no active events, keeping the current index");
+                return;
+            }
+
+            // Event-service may still list events whose end time has passed
+            LocalDateTime now = LocalDateTime.now();
+            List<EventLocation> events = response.getData().stream()
+                .map(EventIndexLoader::toEventLocation)
+                .filter(Objects::nonNull)
+                .filter(event -> event.endTime() == null || event.endTime().isAfter(now))
+                .toList();
+            eventLocationIndex.replaceAll(events);
+            log.debug("Event index reloaded with {} active events", events.size());
+        } catch (Exception e) {
+            // Keep serving from the notification-fed index until the next attempt
+            log.error("Failed to reload event index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Drop ended events between resyncs; event-service does not always
+     * announce the end of an event
+     */
+    @Scheduled(fixedDelayString = "${location.event-index-eviction-interval-ms:60000}")
+    public void evictEnded() {
+        int removed = eventLocationIndex.removeEnded(LocalDateTime.now());
+        if (removed > 0) {
+            log.debug("Removed {} ended events from the event index", removed);
+        }
+    }
+
+    private static EventLocation toEventLocation(ActiveEventDTO event) {
+        if (event.location() == null
+                || event.location().latitude() == null
+                || event.location().longitude() == null) {
+            return null;
+        }
+        return new EventLocation(
+            event.id(),
+            event.title(),
+            event.description(),
+            event.hostId(),
+            event.location().latitude(),
+            event.location().longitude(),
+            event.startTime(),
+            event.endTime(),
+            event.currentParticipants(),
+            event.maxParticipants());
+    }
+}
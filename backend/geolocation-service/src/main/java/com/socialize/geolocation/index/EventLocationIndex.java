@@ -0,0 +1,214 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.model.dto.NearbyEventDTO;
+import com.socialize.geolocation.service.DistanceCalculator;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Local replica of upcoming and ongoing events, maintained from
+ * event-service's event-notifications stream and periodically resynced
+ * with it.
+ *
+ * Events are bucketed into {@code location.event-cell-size-degrees}
+ * cells so nearby-event queries and summary counts only look at the
+ * cells around the probe point, with no call to event-service.
+ */
+@Component
+public class EventLocationIndex {
+
+    private final DistanceCalculator distanceCalculator;
+    private final double cellSize;
+
+    private final Map<Long, EventLocation> eventsById = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> eventsByCell = new ConcurrentHashMap<>();
+
+    public EventLocationIndex(DistanceCalculator distanceCalculator, LocationProperties properties) {
+        this.distanceCalculator = distanceCalculator;
+        this.cellSize = properties.getEventCellSizeDegrees();
+    }
+
+    public void upsert(EventLocation event) {
+        eventsById.compute(event.eventId(), (eventId, previous) -> {
+            long newCell = cellKey(event.latitude(), event.longitude());
+            if (previous != null) {
+                long oldCell = cellKey(previous.latitude(), previous.longitude());
+                if (oldCell == newCell) {
+                    return event;
+                }
+                removeFromCell(oldCell, eventId);
+            }
+            addToCell(newCell, eventId);
+            return event;
+        });
+    }
+
+    public void remove(Long eventId) {
+        eventsById.computeIfPresent(eventId, (id, previous) -> {
+            removeFromCell(cellKey(previous.latitude(), previous.longitude()), id);
+            return null;
+        });
+    }
+
+    /**
+     * Replace the contents with a full listing from event-service
+     */
+    public void replaceAll(Collection<EventLocation> events) {
+        Map<Long, EventLocation> current = new HashMap<>();
+        events.forEach(event -> current.put(event.eventId(), event));
+
+        for (Long eventId : List.copyOf(eventsById.keySet())) {
+            if (!current.containsKey(eventId)) {
+                remove(eventId);
+            }
+        }
+        current.values().forEach(this::upsert);
+    }
+
+    /**
+     * Events that have not ended within radius (meters) of a point, nearest first
+     */
+    public List<NearbyEventDTO> findWithinRadius(double latitude, double longitude, double radius) {
+        List<NearbyEventDTO> nearby = new ArrayList<>();
+        forEachWithinRadius(latitude, longitude, radius, (event, distance) ->
+            nearby.add(NearbyEventDTO.builder()
+                .eventId(event.eventId())
+                .title(event.title())
+                .description(event.description())
+                .hostUserId(event.hostId())
+                .latitude(event.latitude())
+                .longitude(event.longitude())
+                .distance(distance)
+                .startTime(event.startTime())
+                .currentParticipants(event.currentParticipants())
+                .maxParticipants(event.maxParticipants())
+                .build()));
+
+        nearby.sort(Comparator.comparingDouble(NearbyEventDTO::getDistance));
+        return nearby;
+    }
+
+    /**
+     * Count events that have not ended within radius (meters) of a point
+     */
+    public long countWithinRadius(double latitude, double longitude, double radius) {
+        long[] count = {0};
+        forEachWithinRadius(latitude, longitude, radius, (event, distance) -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Drop events that have ended; returns how many were dropped
+     */
+    public int removeEnded(LocalDateTime now) {
+        int removed = 0;
+        for (EventLocation event : List.copyOf(eventsById.values())) {
+            if (event.endTime() != null && !event.endTime().isAfter(now)) {
+                remove(event.eventId());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return eventsById.size();
+    }
+
+    private void forEachWithinRadius(double latitude, double longitude, double radius, EventVisitor visitor) {
+        GeoBounds bounds = GeoBounds.around(latitude, longitude, radius);
+        LocalDateTime now = LocalDateTime.now();
+
+        forEachInBounds(bounds, event -> {
+            if (event.endTime() != null && !event.endTime().isAfter(now)) {
+                return;
+            }
+            double distance = distanceCalculator.distance(
+                latitude, longitude, event.latitude(), event.longitude());
+            if (distance <= radius) {
+                visitor.visit(event, distance);
+            }
+        });
+    }
+
+    private void forEachInBounds(GeoBounds bounds, Consumer<EventLocation> visitor) {
+        long minRow = cellIndex(bounds.minLatitude());
+        long maxRow = cellIndex(bounds.maxLatitude());
+        long minCol = cellIndex(bounds.minLongitude());
+        long maxCol = cellIndex(bounds.maxLongitude());
+
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                long cell = pack(row, col);
+                Set<Long> eventIds = eventsByCell.get(cell);
+                if (eventIds == null) {
+                    continue;
+                }
+                for (Long eventId : eventIds) {
+                    EventLocation event = eventsById.get(eventId);
+                    if (event != null
+                            && cellKey(event.latitude(), event.longitude()) == cell
+                            && bounds.contains(event.latitude(), event.longitude())) {
+                        visitor.accept(event);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addToCell(long cell, Long eventId) {
+        eventsByCell.compute(cell, (key, eventIds) -> {
+            Set<Long> members = eventIds != null ? eventIds : ConcurrentHashMap.newKeySet();
+            members.add(eventId);
+            return members;
+        });
+    }
+
+    private void removeFromCell(long cell, Long eventId) {
+        eventsByCell.computeIfPresent(cell, (key, eventIds) -> {
+            eventIds.remove(eventId);
+            return eventIds.isEmpty() ? null : eventIds;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return pack(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellSize);
+    }
+
+    private static long pack(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+
+    @FunctionalInterface
+    private interface EventVisitor {
+        void visit(EventLocation event, double distance);
+    }
+
+    public record EventLocation(
+        Long eventId,
+        String title,
+        String description,
+        Long hostId,
+        double latitude,
+        double longitude,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Integer currentParticipants,
+        Integer maxParticipants
+    ) {}
+}
@@ -0,0 +1,58 @@
+package com.socialize.geolocation.index;
+
+import java.util.Locale;
+
+/**
+ * Latitude/longitude bounding box used to prefilter spatial lookups.
+ * Boxes are clamped to valid coordinates and do not wrap the antimeridian.
+ */
+public record GeoBounds(
+    double minLatitude,
+    double minLongitude,
+    double maxLatitude,
+    double maxLongitude
+) {
+
+    public static final double METERS_PER_DEGREE = 111320.0;
+
+    /**
+     * Smallest box containing the circle of the given radius (meters)
+     */
+    public static GeoBounds around(double latitude, double longitude, double radius) {
+        double latDelta = radius / METERS_PER_DEGREE;
+        double minLat = Math.max(-90.0, latitude - latDelta);
+        double maxLat = Math.min(90.0, latitude + latDelta);
+
+        // Longitude degrees shrink with latitude; use the widest edge of the box
+        double widestLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        double cosLat = Math.cos(Math.toRadians(widestLat));
+        if (cosLat < 1e-6) {
+            return new GeoBounds(minLat, -180.0, maxLat, 180.0);
+        }
+
+        double lonDelta = radius / (METERS_PER_DEGREE * cosLat);
+        return new GeoBounds(
+            minLat,
+            Math.max(-180.0, longitude - lonDelta),
+            maxLat,
+            Math.min(180.0, longitude + lonDelta)
+        );
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLatitude && latitude <= maxLatitude
+            && longitude >= minLongitude && longitude <= maxLongitude;
+    }
+
+    /**
+     * WKT polygon of the box in longitude-latitude order, for MBR filters
+     */
+    public String toWkt() {
+        return String.format(Locale.ROOT, "POLYGON((%f %f, %f %f, %f %f, %f %f, %f %f))",
+            minLongitude, minLatitude,
+            maxLongitude, minLatitude,
+            maxLongitude, maxLatitude,
+            minLongitude, maxLatitude,
+            minLongitude, minLatitude);
+    }
+}
@@ -0,0 +1,132 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.service.DistanceCalculator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory grid index of active geofences.
+ *
+ * Each geofence is registered in every cell its bounding box overlaps, so
+ * finding the fences around a point is a single cell lookup followed by an
+ * exact distance check against a handful of candidates. Cells are coarser
+ * than the user grid because fences are few and often large.
+ */
+@Component
+public class GeofenceIndex {
+
+    private final DistanceCalculator distanceCalculator;
+    private final double cellSize;
+
+    private volatile Grid grid = new Grid();
+
+    public GeofenceIndex(DistanceCalculator distanceCalculator, LocationProperties properties) {
+        this.distanceCalculator = distanceCalculator;
+        this.cellSize = properties.getGeofenceCellSizeDegrees();
+    }
+
+    /**
+     * Swap in a freshly built index holding exactly the given geofences
+     */
+    public void replaceAll(Collection<IndexedGeofence> geofences) {
+        Grid rebuilt = new Grid();
+        geofences.forEach(rebuilt::add);
+        this.grid = rebuilt;
+    }
+
+    public void upsert(IndexedGeofence geofence) {
+        Grid current = grid;
+        current.remove(geofence.id());
+        current.add(geofence);
+    }
+
+    public void remove(Long geofenceId) {
+        grid.remove(geofenceId);
+    }
+
+    public Optional<IndexedGeofence> get(Long geofenceId) {
+        return Optional.ofNullable(grid.fencesById.get(geofenceId));
+    }
+
+    /**
+     * Geofences applying to the user whose circle contains the point
+     */
+    public List<IndexedGeofence> findContaining(double latitude, double longitude, Long userId) {
+        Grid current = grid;
+        Set<Long> candidates = current.fencesByCell.get(cellKey(latitude, longitude));
+        if (candidates == null) {
+            return List.of();
+        }
+
+        List<IndexedGeofence> containing = new ArrayList<>();
+        for (Long geofenceId : candidates) {
+            IndexedGeofence geofence = current.fencesById.get(geofenceId);
+            if (geofence != null
+                    && geofence.appliesTo(userId)
+                    && distanceCalculator.distance(latitude, longitude,
+                        geofence.latitude(), geofence.longitude()) <= geofence.radius()) {
+                containing.add(geofence);
+            }
+        }
+        return containing;
+    }
+
+    public int size() {
+        return grid.fencesById.size();
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return pack(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellSize);
+    }
+
+    private static long pack(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+
+    private final class Grid {
+
+        private final Map<Long, IndexedGeofence> fencesById = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> fencesByCell = new ConcurrentHashMap<>();
+
+        void add(IndexedGeofence geofence) {
+            fencesById.put(geofence.id(), geofence);
+            forEachCell(geofence.bounds(), cell -> fencesByCell.compute(cell, (key, fences) -> {
+                Set<Long> members = fences != null ? fences : ConcurrentHashMap.newKeySet();
+                members.add(geofence.id());
+                return members;
+            }));
+        }
+
+        void remove(Long geofenceId) {
+            IndexedGeofence previous = fencesById.remove(geofenceId);
+            if (previous == null) {
+                return;
+            }
+            forEachCell(previous.bounds(), cell -> fencesByCell.computeIfPresent(cell, (key, fences) -> {
+                fences.remove(geofenceId);
+                return fences.isEmpty() ? null : fences;
+            }));
+        }
+
+        private void forEachCell(GeoBounds bounds, LongConsumer visitor) {
+            for (long row = cellIndex(bounds.minLatitude()); row <= cellIndex(bounds.maxLatitude()); row++) {
+                for (long col = cellIndex(bounds.minLongitude()); col <= cellIndex(bounds.maxLongitude()); col++) {
+                    visitor.accept(pack(row, col));
+                }
+            }
+        }
+    }
+}
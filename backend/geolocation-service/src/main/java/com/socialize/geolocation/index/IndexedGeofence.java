@@ -0,0 +1,41 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.model.entity.Geofence;
+import com.socialize.geolocation.model.entity.GeofenceType;
+
+/**
+ * Immutable view of an active geofence held in the {@link GeofenceIndex}
+ */
+public record IndexedGeofence(
+    Long id,
+    Long userId,
+    String name,
+    GeofenceType type,
+    double latitude,
+    double longitude,
+    double radius
+) {
+
+    public static IndexedGeofence from(Geofence geofence) {
+        return new IndexedGeofence(
+            geofence.getId(),
+            geofence.getUserId(),
+            geofence.getName(),
+            geofence.getType(),
+            geofence.getCenterPoint().getY(),
+            geofence.getCenterPoint().getX(),
+            geofence.getRadius()
+        );
+    }
+
+    /**
+     * Event geofences apply to everyone; personal ones only to their owner
+     */
+    public boolean appliesTo(Long candidateUserId) {
+        return type == GeofenceType.EVENT || userId.equals(candidateUserId);
+    }
+
+    public GeoBounds bounds() {
+        return GeoBounds.around(latitude, longitude, radius);
+    }
+}
@@ -0,0 +1,14 @@
+package com.socialize.geolocation.index;
+
+import java.time.LocalDateTime;
+
+/**
+ * Current position of a user as held by the in-memory spatial index
+ */
+public record IndexedLocation(
+    Long userId,
+    double latitude,
+    double longitude,
+    Double accuracy,
+    LocalDateTime timestamp
+) {}
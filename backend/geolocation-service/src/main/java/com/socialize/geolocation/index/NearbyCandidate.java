@@ -0,0 +1,9 @@
+package com.socialize.geolocation.index;
+
+/**
+ * Indexed location paired with its distance (meters) from a probe point
+ */
+public record NearbyCandidate(
+    IndexedLocation location,
+    double distance
+) {}
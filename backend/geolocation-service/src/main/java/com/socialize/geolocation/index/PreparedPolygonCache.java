@@ -0,0 +1,77 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.exception.InvalidLocationException;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validated, prepared search polygons keyed by their vertices.
+ *
+ * Preparing a polygon builds the segment index that makes repeated
+ * point-in-polygon tests cheap; clients tend to query the same park or
+ * campus outline over and over, so the most recently used ones are kept.
+ */
+@Component
+public class PreparedPolygonCache {
+
+    private static final int MAX_CACHED_POLYGONS = 1000;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private final Map<List<Coordinate>, PreparedGeometry> polygons = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Coordinate>, PreparedGeometry> eldest) {
+                return size() > MAX_CACHED_POLYGONS;
+            }
+        });
+
+    /**
+     * Prepared polygon for the given vertices (x = longitude, y = latitude).
+     * The ring is closed automatically.
+     */
+    public PreparedGeometry get(List<Coordinate> vertices) {
+        List<Coordinate> ring = closedRing(vertices);
+        PreparedGeometry cached = polygons.get(ring);
+        if (cached != null) {
+            return cached;
+        }
+
+        Polygon polygon = geometryFactory.createPolygon(ring.toArray(Coordinate[]::new));
+        if (!polygon.isValid()) {
+            throw new InvalidLocationException("Search area must be a simple, non-self-intersecting polygon");
+        }
+
+        PreparedGeometry prepared = PreparedGeometryFactory.prepare(polygon);
+        polygons.put(ring, prepared);
+        return prepared;
+    }
+
+    public Point createPoint(double latitude, double longitude) {
+        return geometryFactory.createPoint(new Coordinate(longitude, latitude));
+    }
+
+    private List<Coordinate> closedRing(List<Coordinate> vertices) {
+        List<Coordinate> ring = new ArrayList<>(vertices.size() + 1);
+        vertices.forEach(vertex -> ring.add(new Coordinate(vertex.x, vertex.y)));
+        if (!ring.isEmpty() && !ring.get(0).equals2D(ring.get(ring.size() - 1))) {
+            ring.add(new Coordinate(ring.get(0)));
+        }
+        if (ring.size() < 4) {
+            throw new InvalidLocationException("Search area needs at least three distinct vertices");
+        }
+        return ring;
+    }
+}
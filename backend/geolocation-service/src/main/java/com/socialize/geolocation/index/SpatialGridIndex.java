@@ -0,0 +1,311 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.service.DistanceCalculator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory grid index of current user positions.
+ *
+ * Users are bucketed into fixed-size latitude/longitude cells so a radius
+ * query only visits the cells overlapping the search box instead of every
+ * current location row. MySQL stays the durable store; the index is rebuilt
+ * from it, or from a snapshot, on startup (see {@link SpatialIndexLoader}).
+ */
+@Component
+@Slf4j
+public class SpatialGridIndex {
+
+    private final DistanceCalculator distanceCalculator;
+    private final double cellSize;
+
+    private final Map<Long, IndexedLocation> locationsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> usersByCell = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    public SpatialGridIndex(DistanceCalculator distanceCalculator, LocationProperties properties) {
+        this.distanceCalculator = distanceCalculator;
+        this.cellSize = properties.getGridCellSizeDegrees();
+    }
+
+    /**
+     * Insert or move a user's current position. Older readings never
+     * overwrite a newer one.
+     */
+    public void upsert(IndexedLocation location) {
+        locationsByUser.compute(location.userId(), (userId, previous) -> {
+            if (previous != null && isNewer(previous, location)) {
+                return previous;
+            }
+
+            long newCell = cellKey(location.latitude(), location.longitude());
+            if (previous != null) {
+                long oldCell = cellKey(previous.latitude(), previous.longitude());
+                if (oldCell == newCell) {
+                    return location;
+                }
+                removeFromCell(oldCell, userId);
+            }
+
+            addToCell(newCell, userId);
+            return location;
+        });
+    }
+
+    /**
+     * Remove a user from the index
+     */
+    public void remove(Long userId) {
+        locationsByUser.computeIfPresent(userId, (id, previous) -> {
+            removeFromCell(cellKey(previous.latitude(), previous.longitude()), id);
+            return null;
+        });
+    }
+
+    public Optional<IndexedLocation> get(Long userId) {
+        return Optional.ofNullable(locationsByUser.get(userId));
+    }
+
+    /**
+     * Users within radius (meters) of the probe point, nearest first
+     */
+    public List<NearbyCandidate> findWithinRadius(
+            double latitude, double longitude, double radius, Long excludeUserId) {
+
+        List<NearbyCandidate> candidates = new ArrayList<>();
+        GeoBounds bounds = GeoBounds.around(latitude, longitude, radius);
+
+        forEachInBounds(bounds, location -> {
+            if (location.userId().equals(excludeUserId)) {
+                return;
+            }
+            double distance = distanceCalculator.distance(
+                latitude, longitude, location.latitude(), location.longitude());
+            if (distance <= radius) {
+                candidates.add(new NearbyCandidate(location, distance));
+            }
+        });
+
+        candidates.sort(Comparator.comparingDouble(NearbyCandidate::distance));
+        return candidates;
+    }
+
+    /**
+     * The k users nearest the probe point within maxRadius (meters),
+     * nearest first.
+     *
+     * Cells are visited in square rings around the probe's cell. After
+     * each ring, every unvisited user is at least as far away as the
+     * nearest edge of the visited square, so the search stops as soon as
+     * k candidates are closer than that edge. The work done follows k
+     * rather than how many users share the radius.
+     */
+    public List<NearbyCandidate> findNearest(
+            double latitude, double longitude, int k, double maxRadius, Long excludeUserId) {
+
+        if (k <= 0) {
+            return List.of();
+        }
+
+        // Farthest candidate on top, so it is the one evicted
+        PriorityQueue<NearbyCandidate> nearest = new PriorityQueue<>(
+            Comparator.comparingDouble(NearbyCandidate::distance).reversed());
+
+        long centerRow = cellIndex(latitude);
+        long centerCol = cellIndex(longitude);
+        // Rings past the radius' bounding box cannot hold a match
+        GeoBounds bounds = GeoBounds.around(latitude, longitude, maxRadius);
+        long maxRing = Math.max(
+            Math.max(centerRow - cellIndex(bounds.minLatitude()), cellIndex(bounds.maxLatitude()) - centerRow),
+            Math.max(centerCol - cellIndex(bounds.minLongitude()), cellIndex(bounds.maxLongitude()) - centerCol));
+
+        for (long ring = 0; ring <= maxRing; ring++) {
+            for (long row = centerRow - ring; row <= centerRow + ring; row++) {
+                boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                long step = edgeRow ? 1 : 2 * ring;
+                for (long col = centerCol - ring; col <= centerCol + ring; col += Math.max(1, step)) {
+                    forEachInCell(pack(row, col), location -> {
+                        if (location.userId().equals(excludeUserId)) {
+                            return;
+                        }
+                        double distance = distanceCalculator.distance(
+                            latitude, longitude, location.latitude(), location.longitude());
+                        if (distance > maxRadius) {
+                            return;
+                        }
+                        if (nearest.size() < k) {
+                            nearest.add(new NearbyCandidate(location, distance));
+                        } else if (distance < nearest.peek().distance()) {
+                            nearest.poll();
+                            nearest.add(new NearbyCandidate(location, distance));
+                        }
+                    });
+                }
+            }
+
+            double covered = coveredRadius(latitude, longitude, centerRow, centerCol, ring);
+            if (covered >= maxRadius
+                    || (nearest.size() == k && nearest.peek().distance() <= covered)) {
+                break;
+            }
+        }
+
+        List<NearbyCandidate> candidates = new ArrayList<>(nearest);
+        candidates.sort(Comparator.comparingDouble(NearbyCandidate::distance));
+        return candidates;
+    }
+
+    /**
+     * Count users within radius (meters) of the probe point
+     */
+    public long countWithinRadius(
+            double latitude, double longitude, double radius, Long excludeUserId) {
+
+        long[] count = {0};
+        GeoBounds bounds = GeoBounds.around(latitude, longitude, radius);
+
+        forEachInBounds(bounds, location -> {
+            if (!location.userId().equals(excludeUserId)
+                    && distanceCalculator.distance(
+                        latitude, longitude, location.latitude(), location.longitude()) <= radius) {
+                count[0]++;
+            }
+        });
+
+        return count[0];
+    }
+
+    /**
+     * Users whose position lies inside the bounding box
+     */
+    public List<IndexedLocation> findInBounds(GeoBounds bounds, Long excludeUserId) {
+        List<IndexedLocation> locations = new ArrayList<>();
+        forEachInBounds(bounds, location -> {
+            if (!location.userId().equals(excludeUserId)) {
+                locations.add(location);
+            }
+        });
+        return locations;
+    }
+
+    /**
+     * Visit every indexed location, e.g. to snapshot the index
+     */
+    public void forEach(Consumer<IndexedLocation> visitor) {
+        locationsByUser.values().forEach(visitor);
+    }
+
+    public int size() {
+        return locationsByUser.size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        this.ready = true;
+        log.info("Spatial grid index ready with {} users in {} cells",
+            locationsByUser.size(), usersByCell.size());
+    }
+
+    /**
+     * Distance (meters) from the probe point to the nearest edge of the
+     * square of cells within the given ring of its cell; no unvisited user
+     * can be closer than this
+     */
+    private double coveredRadius(double latitude, double longitude, long centerRow, long centerCol, long ring) {
+        double minLat = (centerRow - ring) * cellSize;
+        double maxLat = (centerRow + ring + 1) * cellSize;
+        double minLon = (centerCol - ring) * cellSize;
+        double maxLon = (centerCol + ring + 1) * cellSize;
+
+        double latEdge = Math.min(latitude - minLat, maxLat - latitude) * GeoBounds.METERS_PER_DEGREE;
+
+        // Longitude degrees are shortest at the edge farthest from the equator
+        double widestLat = Math.min(90.0, Math.max(Math.abs(minLat), Math.abs(maxLat)));
+        double lonEdge = Math.min(longitude - minLon, maxLon - longitude)
+            * GeoBounds.METERS_PER_DEGREE * Math.cos(Math.toRadians(widestLat));
+
+        return Math.min(latEdge, lonEdge);
+    }
+
+    /**
+     * Visit every indexed location inside the bounds exactly once
+     */
+    private void forEachInBounds(GeoBounds bounds, Consumer<IndexedLocation> visitor) {
+        long minRow = cellIndex(bounds.minLatitude());
+        long maxRow = cellIndex(bounds.maxLatitude());
+        long minCol = cellIndex(bounds.minLongitude());
+        long maxCol = cellIndex(bounds.maxLongitude());
+
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                forEachInCell(pack(row, col), location -> {
+                    if (bounds.contains(location.latitude(), location.longitude())) {
+                        visitor.accept(location);
+                    }
+                });
+            }
+        }
+    }
+
+    private void forEachInCell(long cell, Consumer<IndexedLocation> visitor) {
+        Set<Long> users = usersByCell.get(cell);
+        if (users == null) {
+            return;
+        }
+        for (Long userId : users) {
+            IndexedLocation location = locationsByUser.get(userId);
+            // A user moving concurrently may briefly sit in two cells;
+            // only report it from the cell it currently belongs to
+            if (location != null && cellKey(location.latitude(), location.longitude()) == cell) {
+                visitor.accept(location);
+            }
+        }
+    }
+
+    private void addToCell(long cell, Long userId) {
+        usersByCell.compute(cell, (key, users) -> {
+            Set<Long> members = users != null ? users : ConcurrentHashMap.newKeySet();
+            members.add(userId);
+            return members;
+        });
+    }
+
+    private void removeFromCell(long cell, Long userId) {
+        usersByCell.computeIfPresent(cell, (key, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    private boolean isNewer(IndexedLocation existing, IndexedLocation candidate) {
+        return existing.timestamp() != null && candidate.timestamp() != null
+            && existing.timestamp().isAfter(candidate.timestamp());
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return pack(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellSize);
+    }
+
+    private static long pack(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+}
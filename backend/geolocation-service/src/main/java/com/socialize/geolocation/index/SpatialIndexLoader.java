@@ -0,0 +1,82 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.repository.IndexedLocationRepository;
+import com.socialize.geolocation.shard.ShardRing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Populates the spatial grid index on startup: from the last snapshot
+ * plus the rows written since it when there is one, otherwise from all
+ * of MySQL. A sharded instance only loads users in the regions it owns.
+ */
+@Component
+@ConditionalOnProperty(name = "location.store", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SpatialIndexLoader {
+
+    private final IndexedLocationRepository indexedLocationRepository;
+    private final SpatialGridIndex spatialGridIndex;
+    private final SpatialIndexSnapshot spatialIndexSnapshot;
+    private final LocationProperties locationProperties;
+    private final ShardRing shardRing;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        log.info("Loading current locations into spatial grid index");
+        long start = System.currentTimeMillis();
+
+        try {
+            Optional<LocalDateTime> snapshotTakenAt = spatialIndexSnapshot.restore(this::loadIfOwned);
+            long replayed;
+            if (snapshotTakenAt.isPresent()) {
+                // Rows committed shortly after the snapshot started may carry
+                // an earlier updated_at
+                LocalDateTime since = snapshotTakenAt.get()
+                    .minusNanos(locationProperties.getSnapshotReplayMarginMs() * 1_000_000L);
+                log.info("Restored {} users from snapshot, replaying rows updated since {}",
+                    spatialGridIndex.size(), since);
+                replayed = indexedLocationRepository.streamUpdatedSince(since, this::replay);
+            } else {
+                replayed = indexedLocationRepository.streamAll(this::loadIfOwned);
+            }
+
+            spatialGridIndex.markReady();
+            log.info("Loaded {} current locations ({} from MySQL) in {} ms",
+                spatialGridIndex.size(), replayed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Queries keep falling back to MySQL until the index is ready
+            log.error("Failed to load spatial grid index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Like {@link #loadIfOwned}, but a user who has since moved to a region
+     * another instance owns is also dropped from the restored snapshot
+     */
+    private void replay(IndexedLocation location) {
+        if (shardRing.owns(location.latitude(), location.longitude())) {
+            spatialGridIndex.upsert(location);
+            return;
+        }
+        spatialGridIndex.get(location.userId())
+            .filter(restored -> restored.timestamp() == null || location.timestamp() == null
+                || !restored.timestamp().isAfter(location.timestamp()))
+            .ifPresent(restored -> spatialGridIndex.remove(location.userId()));
+    }
+
+    private void loadIfOwned(IndexedLocation location) {
+        if (shardRing.owns(location.latitude(), location.longitude())) {
+            spatialGridIndex.upsert(location);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.repository.IndexedLocationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Periodic binary snapshot of the spatial grid index in a memory-mapped
+ * file, so a restart restores the index with sequential reads instead of
+ * loading every current location from MySQL.
+ *
+ * Layout, big-endian:
+ * <pre>
+ * header (32 bytes)
+ *   0  int     magic "LOCS"
+ *   4  int     format version (2)
+ *   8  long    database time the snapshot was started, epoch milliseconds
+ *  16  int     record count
+ *  20  long    CRC32 of the records
+ *  28  int     reserved
+ * record (36 bytes each)
+ *   0  long    user ID
+ *   8  double  latitude
+ *  16  double  longitude
+ *  24  float   accuracy in meters, NaN when unknown
+ *  28  long    reading time, epoch milliseconds, Long.MIN_VALUE when unknown
+ * </pre>
+ * Snapshots are written to a temporary file and moved into place, so a
+ * crash mid-write leaves the previous one intact.
+ */
+@Component
+@ConditionalOnProperty(name = "location.store", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SpatialIndexSnapshot {
+
+    private static final int MAGIC = 0x4c4f4353;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 36;
+
+    private static final ZoneOffset ZONE = ZoneOffset.UTC;
+
+    private final SpatialGridIndex spatialGridIndex;
+    private final IndexedLocationRepository indexedLocationRepository;
+    private final LocationProperties locationProperties;
+
+    @Scheduled(fixedDelayString = "${location.snapshot-interval-ms:300000}",
+        initialDelayString = "${location.snapshot-interval-ms:300000}")
+    public void scheduledWrite() {
+        if (!spatialGridIndex.isReady()) {
+            return;
+        }
+        try {
+            write();
+        } catch (Exception e) {
+            log.error("Failed to write spatial index snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        scheduledWrite();
+    }
+
+    /**
+     * Write the current index contents. The snapshot is stamped with the
+     * database time before the index is read, so replaying rows updated
+     * since that time catches anything the copy missed.
+     */
+    public void write() throws IOException {
+        long start = System.currentTimeMillis();
+        LocalDateTime takenAt = indexedLocationRepository.databaseNow();
+
+        List<IndexedLocation> locations = new ArrayList<>(spatialGridIndex.size());
+        spatialGridIndex.forEach(locations::add);
+
+        Path path = Path.of(locationProperties.getSnapshotPath());
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) locations.size() * RECORD_SIZE);
+
+            buffer.position(HEADER_SIZE);
+            for (IndexedLocation location : locations) {
+                buffer.putLong(location.userId())
+                    .putDouble(location.latitude())
+                    .putDouble(location.longitude())
+                    .putFloat(location.accuracy() != null ? location.accuracy().floatValue() : Float.NaN)
+                    .putLong(location.timestamp() != null ? toEpochMillis(location.timestamp()) : Long.MIN_VALUE);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+
+            buffer.putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putLong(8, toEpochMillis(takenAt))
+                .putInt(16, locations.size())
+                .putLong(20, crc.getValue())
+                .putInt(28, 0);
+            buffer.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Wrote spatial index snapshot of {} users in {} ms",
+            locations.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Hand every record of the last snapshot to the visitor. Returns the
+     * database time it was taken at, or empty when there is no usable
+     * snapshot.
+     */
+    public Optional<LocalDateTime> restore(Consumer<IndexedLocation> visitor) {
+        Path path = Path.of(locationProperties.getSnapshotPath());
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                log.warn("Ignoring spatial index snapshot {}: unknown format", path);
+                return Optional.empty();
+            }
+            int count = buffer.getInt(16);
+            if (buffer.capacity() != HEADER_SIZE + (long) count * RECORD_SIZE) {
+                log.warn("Ignoring spatial index snapshot {}: truncated", path);
+                return Optional.empty();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+            if (crc.getValue() != buffer.getLong(20)) {
+                log.warn("Ignoring spatial index snapshot {}: checksum mismatch", path);
+                return Optional.empty();
+            }
+
+            buffer.position(HEADER_SIZE);
+            for (int i = 0; i < count; i++) {
+                long userId = buffer.getLong();
+                double latitude = buffer.getDouble();
+                double longitude = buffer.getDouble();
+                float accuracy = buffer.getFloat();
+                long timestamp = buffer.getLong();
+                visitor.accept(new IndexedLocation(
+                    userId,
+                    latitude,
+                    longitude,
+                    Float.isNaN(accuracy) ? null : (double) accuracy,
+                    timestamp != Long.MIN_VALUE ? toDateTime(timestamp) : null
+                ));
+            }
+            return Optional.of(toDateTime(buffer.getLong(8)));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable spatial index snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZONE);
+    }
+}
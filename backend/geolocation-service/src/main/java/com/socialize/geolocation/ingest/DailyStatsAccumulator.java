@@ -0,0 +1,91 @@
+package com.socialize.geolocation.ingest;
+
+import com.socialize.geolocation.service.DistanceCalculator;
+import com.socialize.geolocation.store.LastPingStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns ingested pings into per-user, per-day rollup increments.
+ *
+ * The distance between consecutive readings is charged to the day of the
+ * later one. The last reading per user is remembered across flushes in
+ * the {@link LastPingStore} so consecutive batches chain; when it is kept
+ * in node memory, a user's first segment after a restart starts fresh.
+ */
+@Component
+@RequiredArgsConstructor
+public class DailyStatsAccumulator {
+
+    private static final String LAST_PING_SCOPE = "daily-stats";
+
+    private final DistanceCalculator distanceCalculator;
+    private final LastPingStore lastPingStore;
+
+    /**
+     * Rollup increments for a batch. The remembered last readings are only
+     * moved on by {@link #advance} once the increments are committed.
+     */
+    public Collection<DailyStatsDelta> accumulate(List<LocationPing> pings) {
+        Map<String, DailyStatsDelta> deltas = new LinkedHashMap<>();
+        Map<Long, LocationPing> pendingLast = new HashMap<>();
+
+        List<LocationPing> ordered = new ArrayList<>(pings);
+        ordered.sort(Comparator.comparing(LocationPing::userId)
+            .thenComparing(LocationPing::timestamp));
+
+        Set<Long> userIds = new HashSet<>();
+        ordered.forEach(ping -> userIds.add(ping.userId()));
+        Map<Long, LocationPing> lastPingByUser = lastPingStore.getAll(LAST_PING_SCOPE, userIds);
+
+        for (LocationPing ping : ordered) {
+            LocationPing previous = pendingLast.containsKey(ping.userId())
+                ? pendingLast.get(ping.userId())
+                : lastPingByUser.get(ping.userId());
+            double distance = 0.0;
+
+            if (previous == null || !ping.timestamp().isBefore(previous.timestamp())) {
+                if (previous != null) {
+                    distance = distanceCalculator.distance(
+                        previous.latitude(), previous.longitude(),
+                        ping.latitude(), ping.longitude());
+                }
+                pendingLast.put(ping.userId(), ping);
+            }
+            // Readings older than the last one seen still count as updates
+            // but cannot be placed on the path
+
+            LocalDate day = ping.timestamp().toLocalDate();
+            String key = ping.userId() + ":" + day;
+            DailyStatsDelta delta = deltas.getOrDefault(key, DailyStatsDelta.empty(ping.userId(), day));
+            deltas.put(key, delta.add(distance, ping.accuracy()));
+        }
+
+        return deltas.values();
+    }
+
+    /**
+     * Remember the newest committed reading per user
+     */
+    public void advance(List<LocationPing> pings) {
+        lastPingStore.advance(LAST_PING_SCOPE, pings);
+    }
+
+    /**
+     * Forget users whose last reading is older than the given day
+     */
+    public void evictBefore(LocalDate day) {
+        lastPingStore.evictBefore(LAST_PING_SCOPE, day);
+    }
+}
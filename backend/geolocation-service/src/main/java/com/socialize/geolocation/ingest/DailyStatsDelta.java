@@ -0,0 +1,44 @@
+package com.socialize.geolocation.ingest;
+
+import java.time.LocalDate;
+
+/**
+ * Increment to one user's rollup row for one day
+ */
+public record DailyStatsDelta(
+    Long userId,
+    LocalDate statDate,
+    double distanceMeters,
+    int updateCount,
+    int accuracyCount,
+    double accuracySum,
+    double accuracyMin,
+    double accuracyMax
+) {
+
+    /**
+     * Count one reading; one without an accuracy leaves the accuracy
+     * figures untouched
+     */
+    DailyStatsDelta add(double distance, Double accuracy) {
+        if (accuracy == null) {
+            return new DailyStatsDelta(userId, statDate, distanceMeters + distance, updateCount + 1,
+                accuracyCount, accuracySum, accuracyMin, accuracyMax);
+        }
+        return new DailyStatsDelta(
+            userId,
+            statDate,
+            distanceMeters + distance,
+            updateCount + 1,
+            accuracyCount + 1,
+            accuracySum + accuracy,
+            Math.min(accuracyMin, accuracy),
+            Math.max(accuracyMax, accuracy)
+        );
+    }
+
+    static DailyStatsDelta empty(Long userId, LocalDate statDate) {
+        return new DailyStatsDelta(userId, statDate, 0.0, 0, 0, 0.0,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+    }
+}
@@ -0,0 +1,50 @@
+package com.socialize.geolocation.ingest;
+
+import com.socialize.geolocation.repository.LocationBatchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persists one flushed ingest batch in a single transaction
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationBatchWriter {
+    
+    private final LocationBatchRepository locationBatchRepository;
+    private final DailyStatsAccumulator dailyStatsAccumulator;
+    private final TrajectoryFilter trajectoryFilter;
+    
+    /**
+     * Upsert the newest ping per user as the current location, append
+     * the stored history points and roll every accepted ping into the
+     * daily stats, so the rollup describes received updates whatever the
+     * thinning tolerance. Returns the generated history ids, in the order
+     * of {@code history}. The thinning and rollup state only moves on once
+     * the transaction commits, so a failed batch can be written again
+     * unchanged.
+     */
+    @Transactional
+    public long[] write(Collection<LocationPing> latestPerUser,
+                        List<LocationPing> accepted,
+                        List<LocationPing> history) {
+        locationBatchRepository.upsertCurrentLocations(latestPerUser);
+        long[] historyIds = locationBatchRepository.insertHistory(history);
+        locationBatchRepository.upsertDailyStats(dailyStatsAccumulator.accumulate(accepted));
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                trajectoryFilter.advance(history);
+                dailyStatsAccumulator.advance(accepted);
+            }
+        });
+        return historyIds;
+    }
+}
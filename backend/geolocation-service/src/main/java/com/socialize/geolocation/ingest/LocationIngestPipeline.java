@@ -0,0 +1,232 @@
+package com.socialize.geolocation.ingest;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.exception.IngestOverloadedException;
+import com.socialize.geolocation.kafka.LatestLocationPublisher;
+import com.socialize.geolocation.kafka.LocationKafkaProducer;
+import com.socialize.geolocation.store.RecentHistoryWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind stage between the location API and MySQL.
+ *
+ * Requests only enqueue their ping; a flush on a dedicated thread, every
+ * {@code location.ingest-flush-interval-ms}, drains the queue,
+ * coalesces pings per user so the current location is written once per
+ * flush window, batch-inserts the history rows that survive trajectory
+ * thinning and publishes one Kafka record per user whose path changed. A
+ * failed write is retried a few times before the batch is dropped. A full
+ * queue rejects new pings after a short wait, which surfaces to clients
+ * as 503. The flush does not share Spring's scheduler pool, so a slow
+ * reload or snapshot can never hold up ingest and fill the queue.
+ */
+@Component
+@Slf4j
+public class LocationIngestPipeline {
+
+    private final LocationBatchWriter batchWriter;
+    private final TrajectoryFilter trajectoryFilter;
+    private final LocationKafkaProducer kafkaProducer;
+    private final LatestLocationPublisher latestLocationPublisher;
+    private final RecentHistoryWindow recentHistoryWindow;
+    private final LocationProperties locationProperties;
+
+    private final BlockingQueue<LocationPing> queue;
+    private final Timer flushTimer;
+    private final DistributionSummary flushSize;
+    private final Counter coalescedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+    private final ScheduledExecutorService flushScheduler;
+
+    public LocationIngestPipeline(
+            LocationBatchWriter batchWriter,
+            TrajectoryFilter trajectoryFilter,
+            LocationKafkaProducer kafkaProducer,
+            LatestLocationPublisher latestLocationPublisher,
+            RecentHistoryWindow recentHistoryWindow,
+            LocationProperties locationProperties,
+            MeterRegistry meterRegistry) {
+        this.batchWriter = batchWriter;
+        this.trajectoryFilter = trajectoryFilter;
+        this.kafkaProducer = kafkaProducer;
+        this.latestLocationPublisher = latestLocationPublisher;
+        this.recentHistoryWindow = recentHistoryWindow;
+        this.locationProperties = locationProperties;
+        this.queue = new ArrayBlockingQueue<>(locationProperties.getIngestQueueCapacity());
+
+        Gauge.builder("location.ingest.queue.depth", queue, BlockingQueue::size)
+            .description("Location pings waiting to be flushed")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("location.ingest.flush.latency")
+            .description("Time spent persisting one flushed batch")
+            .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("location.ingest.flush.size")
+            .description("Pings persisted per flush")
+            .register(meterRegistry);
+        this.coalescedCounter = meterRegistry.counter("location.ingest.coalesced");
+        this.rejectedCounter = meterRegistry.counter("location.ingest.rejected");
+        this.failedCounter = meterRegistry.counter("location.ingest.failed");
+        this.retriedCounter = meterRegistry.counter("location.ingest.retried");
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("ingest-flush-"));
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = locationProperties.getIngestFlushIntervalMs();
+        flushScheduler.scheduleWithFixedDelay(this::scheduledFlush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Enqueue a ping, waiting briefly for space when the queue is full
+     */
+    public void accept(LocationPing ping) {
+        try {
+            if (queue.offer(ping, locationProperties.getIngestOfferTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        rejectedCounter.increment();
+        throw new IngestOverloadedException("Location ingest is overloaded, retry later");
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return locationProperties.getIngestQueueCapacity();
+    }
+
+    public void flush() {
+        int maxFlushSize = locationProperties.getIngestMaxFlushSize();
+        List<LocationPing> drained = new ArrayList<>(maxFlushSize);
+
+        // Keep flushing while the queue holds more than one batch
+        do {
+            drained.clear();
+            queue.drainTo(drained, maxFlushSize);
+            if (!drained.isEmpty()) {
+                flushBatch(drained);
+            }
+        } while (drained.size() == maxFlushSize);
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() throws InterruptedException {
+        // Let a running flush finish so the final one does not overlap it
+        flushScheduler.shutdown();
+        if (!flushScheduler.awaitTermination(locationProperties.getIngestFlushIntervalMs() * 10,
+                TimeUnit.MILLISECONDS)) {
+            log.warn("Ingest flush still running at shutdown");
+        }
+        log.info("Flushing {} pending location pings before shutdown", queue.size());
+        flush();
+    }
+
+    private void scheduledFlush() {
+        // An exception escaping would cancel every later flush
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Location ingest flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void flushBatch(List<LocationPing> pings) {
+        Map<Long, LocationPing> latestPerUser = new LinkedHashMap<>();
+        for (LocationPing ping : pings) {
+            latestPerUser.merge(ping.userId(), ping, (current, candidate) ->
+                candidate.timestamp().isBefore(current.timestamp()) ? current : candidate);
+        }
+        coalescedCounter.increment(pings.size() - latestPerUser.size());
+
+        List<LocationPing> history = trajectoryFilter.thin(pings);
+        Set<Long> movedUserIds = new HashSet<>();
+        history.forEach(ping -> movedUserIds.add(ping.userId()));
+
+        long[] historyIds = writeWithRetry(latestPerUser.values(), pings, history);
+        if (historyIds == null) {
+            return;
+        }
+        flushSize.record(pings.size());
+        recentHistoryWindow.append(history, historyIds);
+
+        for (LocationPing latest : latestPerUser.values()) {
+            // The compacted topic always carries the exact position; users
+            // whose new pings were all predictable add nothing to the path
+            latestLocationPublisher.publish(latest);
+            if (movedUserIds.contains(latest.userId())) {
+                kafkaProducer.sendLocationUpdate(latest);
+            }
+        }
+
+        log.debug("Flushed {} location pings for {} users", pings.size(), latestPerUser.size());
+    }
+
+    /**
+     * The pings were already acknowledged, so a failed transaction is
+     * retried a bounded number of times with backoff before the batch is
+     * given up. Returns the history ids, or null when every attempt failed.
+     */
+    private long[] writeWithRetry(Collection<LocationPing> latestPerUser,
+                                  List<LocationPing> pings,
+                                  List<LocationPing> history) {
+        int pingCount = pings.size();
+        int maxAttempts = Math.max(1, locationProperties.getIngestFlushMaxAttempts());
+        long backoffMs = locationProperties.getIngestFlushRetryBackoffMs();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return flushTimer.recordCallable(() -> batchWriter.write(latestPerUser, pings, history));
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    failedCounter.increment(pingCount);
+                    log.error("Failed to flush {} location pings after {} attempts: {}",
+                        pingCount, attempt, e.getMessage(), e);
+                    return null;
+                }
+                retriedCounter.increment();
+                log.warn("Flush of {} location pings failed (attempt {}), retrying: {}",
+                    pingCount, attempt, e.getMessage());
+            }
+
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedCounter.increment(pingCount);
+                log.error("Interrupted while retrying flush of {} location pings", pingCount);
+                return null;
+            }
+            backoffMs *= 2;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.socialize.geolocation.ingest;
+
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.model.dto.LocationUpdateRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single accepted location reading waiting to be persisted
+ */
+public record LocationPing(
+    Long userId,
+    double latitude,
+    double longitude,
+    Double accuracy,
+    Double altitude,
+    Double speed,
+    Double heading,
+    String deviceId,
+    String provider,
+    LocalDateTime timestamp
+) {
+
+    public static LocationPing from(Long userId, LocationUpdateRequest request, LocalDateTime timestamp) {
+        return new LocationPing(
+            userId,
+            request.getLatitude(),
+            request.getLongitude(),
+            request.getAccuracy(),
+            request.getAltitude(),
+            request.getSpeed(),
+            request.getHeading(),
+            request.getDeviceId(),
+            request.getProvider(),
+            timestamp
+        );
+    }
+
+    public IndexedLocation toIndexedLocation() {
+        return new IndexedLocation(userId, latitude, longitude, accuracy, timestamp);
+    }
+}
@@ -0,0 +1,157 @@
+package com.socialize.geolocation.ingest;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.service.DistanceCalculator;
+import com.socialize.geolocation.store.LastPingStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which accepted pings are worth keeping in history.
+ *
+ * Readings less accurate than {@code location.accuracy-threshold} are
+ * dropped once a user has a position. The rest are thinned by dead
+ * reckoning: from the last stored point, its speed and heading predict
+ * where the user should be, and a ping is stored only when it lands
+ * further than the tolerance (or its own accuracy) from that prediction,
+ * or when {@code location.thinning-max-gap-seconds} have passed. Users
+ * standing still or moving in a straight line therefore store a point
+ * every few minutes instead of on every update. Thinning only affects
+ * history; the current location is always the newest accepted ping.
+ * The last stored point per user is kept in the {@link LastPingStore}.
+ */
+@Component
+public class TrajectoryFilter {
+
+    private static final String ANCHOR_SCOPE = "trajectory";
+
+    private final DistanceCalculator distanceCalculator;
+    private final LocationProperties locationProperties;
+    private final LastPingStore lastPingStore;
+
+    private final Counter inaccurateCounter;
+    private final Counter thinnedCounter;
+
+    public TrajectoryFilter(
+            DistanceCalculator distanceCalculator,
+            LocationProperties locationProperties,
+            LastPingStore lastPingStore,
+            MeterRegistry meterRegistry) {
+        this.distanceCalculator = distanceCalculator;
+        this.locationProperties = locationProperties;
+        this.lastPingStore = lastPingStore;
+        this.inaccurateCounter = meterRegistry.counter("location.ingest.inaccurate");
+        this.thinnedCounter = meterRegistry.counter("location.ingest.thinned");
+    }
+
+    /**
+     * Whether a reading is accurate enough to replace the user's position.
+     * Without a known position any reading is better than none.
+     */
+    public boolean isAccurateEnough(LocationPing ping, boolean hasCurrentPosition) {
+        if (!hasCurrentPosition || ping.accuracy() == null
+                || ping.accuracy() <= locationProperties.getAccuracyThreshold()) {
+            return true;
+        }
+        inaccurateCounter.increment();
+        return false;
+    }
+
+    /**
+     * The subset of pings that should be written to history, in time order.
+     * The stored anchors are left alone until {@link #advance} confirms the
+     * subset was written.
+     */
+    public List<LocationPing> thin(List<LocationPing> pings) {
+        List<LocationPing> ordered = new ArrayList<>(pings);
+        ordered.sort(Comparator.comparing(LocationPing::timestamp));
+
+        Set<Long> userIds = new HashSet<>();
+        ordered.forEach(ping -> userIds.add(ping.userId()));
+        Map<Long, LocationPing> storedAnchors = lastPingStore.getAll(ANCHOR_SCOPE, userIds);
+
+        Map<Long, LocationPing> pendingAnchors = new HashMap<>();
+        List<LocationPing> stored = new ArrayList<>(ordered.size());
+        for (LocationPing ping : ordered) {
+            LocationPing anchor = pendingAnchors.containsKey(ping.userId())
+                ? pendingAnchors.get(ping.userId())
+                : storedAnchors.get(ping.userId());
+
+            if (anchor == null || shouldStore(anchor, ping)) {
+                stored.add(ping);
+                if (anchor == null || ping.timestamp().isAfter(anchor.timestamp())) {
+                    pendingAnchors.put(ping.userId(), ping);
+                }
+            } else {
+                thinnedCounter.increment();
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Move the anchors forward to history points that have been committed
+     */
+    public void advance(List<LocationPing> stored) {
+        lastPingStore.advance(ANCHOR_SCOPE, stored);
+    }
+
+    /**
+     * Forget users whose last stored point is older than the given day
+     */
+    public void evictBefore(LocalDate day) {
+        lastPingStore.evictBefore(ANCHOR_SCOPE, day);
+    }
+
+    private boolean shouldStore(LocationPing anchor, LocationPing ping) {
+        long elapsedSeconds = Duration.between(anchor.timestamp(), ping.timestamp()).getSeconds();
+
+        // Late readings cannot be predicted from a newer anchor
+        if (elapsedSeconds < 0 || elapsedSeconds >= locationProperties.getThinningMaxGapSeconds()) {
+            return true;
+        }
+
+        double[] predicted = predict(anchor, elapsedSeconds);
+        double deviation = distanceCalculator.distance(
+            predicted[0], predicted[1], ping.latitude(), ping.longitude());
+
+        double tolerance = Math.max(locationProperties.getThinningToleranceMeters(),
+            ping.accuracy() != null ? ping.accuracy() : 0.0);
+        return deviation > tolerance;
+    }
+
+    /**
+     * Dead-reckoned position: the anchor moved along its heading at its
+     * speed, or stayed put when either is unknown or below walking pace
+     */
+    private double[] predict(LocationPing anchor, long elapsedSeconds) {
+        Double speed = anchor.speed();
+        Double heading = anchor.heading();
+        if (speed == null || heading == null
+                || speed < locationProperties.getStationarySpeedThreshold()) {
+            return new double[] {anchor.latitude(), anchor.longitude()};
+        }
+
+        double meters = speed * elapsedSeconds;
+        double bearing = Math.toRadians(heading);
+        double northMeters = meters * Math.cos(bearing);
+        double eastMeters = meters * Math.sin(bearing);
+
+        double latitude = anchor.latitude() + northMeters / GeoBounds.METERS_PER_DEGREE;
+        double longitude = anchor.longitude() + eastMeters
+            / (GeoBounds.METERS_PER_DEGREE * Math.cos(Math.toRadians(anchor.latitude())));
+        return new double[] {latitude, longitude};
+    }
+}
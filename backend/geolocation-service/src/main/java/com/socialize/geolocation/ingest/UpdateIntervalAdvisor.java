@@ -0,0 +1,104 @@
+package com.socialize.geolocation.ingest;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.service.DistanceCalculator;
+import com.socialize.geolocation.store.CurrentLocationStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Tells clients when to send their next location update.
+ *
+ * Moving users are asked for a reading every
+ * {@code location.target-update-displacement-meters} of travel, twice as
+ * often in dense areas where small moves change who is nearby. Stationary
+ * users are asked to report only every {@code location.max-update-interval}
+ * seconds or once they have moved further than thinning would drop.
+ * Users without a speed yet get {@code location.update-interval}. Both
+ * hints stretch as the ingest queue fills, so clients back off before
+ * updates start being rejected.
+ */
+@Component
+@RequiredArgsConstructor
+public class UpdateIntervalAdvisor {
+
+    private final LocationIngestPipeline ingestPipeline;
+    private final CurrentLocationStore currentLocationStore;
+    private final DistanceCalculator distanceCalculator;
+    private final LocationProperties locationProperties;
+
+    public UpdateAdvice advise(LocationPing ping, Optional<IndexedLocation> previous) {
+        double minDisplacement = Math.max(locationProperties.getThinningToleranceMeters(),
+            ping.accuracy() != null ? ping.accuracy() : 0.0);
+
+        Double speed = speed(ping, previous);
+        double interval;
+        if (speed == null) {
+            interval = locationProperties.getUpdateInterval();
+        } else if (speed < locationProperties.getStationarySpeedThreshold()) {
+            interval = locationProperties.getMaxUpdateInterval();
+        } else {
+            interval = locationProperties.getTargetUpdateDisplacementMeters() / speed;
+            long neighbours = currentLocationStore.countWithinRadius(ping.latitude(), ping.longitude(),
+                locationProperties.getDenseAreaRadius(), ping.userId());
+            if (neighbours >= locationProperties.getDenseAreaUserCount()) {
+                interval /= 2;
+            }
+        }
+
+        double backoff = loadBackoff();
+        interval = clamp(interval * backoff,
+            locationProperties.getMinUpdateInterval(), locationProperties.getMaxUpdateInterval());
+
+        return new UpdateAdvice((int) Math.round(interval), minDisplacement * backoff);
+    }
+
+    /**
+     * Reported speed, or the speed implied by the move from the previous
+     * position when the device does not report one; null for a first
+     * reading without speed
+     */
+    private Double speed(LocationPing ping, Optional<IndexedLocation> previous) {
+        if (ping.speed() != null) {
+            return ping.speed();
+        }
+        if (previous.isEmpty() || previous.get().timestamp() == null) {
+            return null;
+        }
+
+        IndexedLocation from = previous.get();
+        double seconds = Duration.between(from.timestamp(), ping.timestamp()).toMillis() / 1000.0;
+        if (seconds <= 0) {
+            return null;
+        }
+        return distanceCalculator.distance(from.latitude(), from.longitude(),
+            ping.latitude(), ping.longitude()) / seconds;
+    }
+
+    /**
+     * 1 while the ingest queue is below the threshold, rising linearly to
+     * {@code location.max-update-backoff} when it is full
+     */
+    private double loadBackoff() {
+        double load = (double) ingestPipeline.getQueueDepth() / ingestPipeline.getQueueCapacity();
+        double threshold = locationProperties.getUpdateBackoffLoadThreshold();
+        if (load <= threshold) {
+            return 1.0;
+        }
+        double pressure = Math.min(1.0, (load - threshold) / (1.0 - threshold));
+        return 1.0 + pressure * (locationProperties.getMaxUpdateBackoff() - 1.0);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Seconds until the next update and meters of movement worth reporting early
+     */
+    public record UpdateAdvice(int nextUpdateIntervalSeconds, double minDisplacementMeters) {}
+}
@@ -0,0 +1,85 @@
+package com.socialize.geolocation.kafka;
+
+import com.socialize.common.kafka.LatestLocationCodec;
+import com.socialize.common.kafka.LatestLocationCodec.LatestLocation;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.ingest.LocationPing;
+import com.socialize.geolocation.store.CurrentLocationStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * Publishes each user's newest position to the compacted location-latest
+ * topic in the binary {@link LatestLocationCodec} layout. Timestamps are
+ * epoch milliseconds of the JVM-local reading time (the convention of
+ * every in-memory {@code LocalDateTime} here), and a position is only
+ * published while it is the user's current one, so the topic never moves
+ * a user back to an older reading.
+ *
+ * The template is private to this class rather than a bean so it does not
+ * replace Spring Boot's JSON {@code KafkaTemplate}; it shares the batching
+ * and compression settings from {@code spring.kafka.producer}.
+ */
+@Component
+@Slf4j
+public class LatestLocationPublisher {
+    
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final CurrentLocationStore currentLocationStore;
+    
+    @Value("${kafka.topics.location-latest}")
+    private String locationLatestTopic;
+    
+    public LatestLocationPublisher(KafkaProperties kafkaProperties, CurrentLocationStore currentLocationStore) {
+        this.currentLocationStore = currentLocationStore;
+        this.producerFactory = new DefaultKafkaProducerFactory<>(
+            kafkaProperties.buildProducerProperties(null),
+            new StringSerializer(),
+            new ByteArraySerializer());
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+    }
+    
+    /**
+     * Send the latest position of a user, replacing the previous one once
+     * the topic is compacted. Skipped when the current-location store holds
+     * a newer reading (or none), since the newer one is published itself.
+     */
+    public void publish(LocationPing location) {
+        Optional<IndexedLocation> current = currentLocationStore.get(location.userId());
+        if (current.isEmpty() || current.get().timestamp().isAfter(location.timestamp())) {
+            log.debug("Not publishing superseded location of user {}", location.userId());
+            return;
+        }
+        
+        byte[] value = LatestLocationCodec.encode(new LatestLocation(
+            location.latitude(),
+            location.longitude(),
+            location.accuracy(),
+            location.timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        
+        kafkaTemplate.send(locationLatestTopic, location.userId().toString(), value)
+            .whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("Failed to publish latest location for user {}: {}",
+                        location.userId(), ex.getMessage());
+                }
+            });
+    }
+    
+    @PreDestroy
+    public void close() {
+        kafkaTemplate.flush();
+        producerFactory.destroy();
+    }
+}
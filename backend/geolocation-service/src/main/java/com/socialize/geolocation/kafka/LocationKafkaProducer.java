@@ -1,13 +1,16 @@
 package com.socialize.geolocation.kafka;
 
-import com.socialize.geolocation.model.entity.UserLocation;
+import com.socialize.geolocation.index.IndexedGeofence;
+import com.socialize.geolocation.ingest.LocationPing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -23,16 +26,24 @@ public class LocationKafkaProducer {
     @Value("${kafka.topics.location-batch-updates}")
     private String batchUpdatesTopic;
     
+    @Value("${kafka.topics.geofence-events}")
+    private String geofenceEventsTopic;
+    
+    @Value("${kafka.topics.buddy-nearby}")
+    private String buddyNearbyTopic;
+    
     /**
      * Send location update event
      */
-    public void sendLocationUpdate(Long userId, UserLocation location) {
+    public void sendLocationUpdate(LocationPing location) {
+        Long userId = location.userId();
         Map<String, Object> event = new HashMap<>();
         event.put("userId", userId);
-        event.put("latitude", location.getLatitude());
-        event.put("longitude", location.getLongitude());
-        event.put("accuracy", location.getAccuracy());
-        event.put("timestamp", location.getTimestamp());
+        event.put("latitude", location.latitude());
+        event.put("longitude", location.longitude());
+        event.put("accuracy", location.accuracy());
+        event.put("timestamp", location.timestamp());
+        event.put("publishedAt", System.currentTimeMillis());
         
         kafkaTemplate.send(locationUpdatesTopic, userId.toString(), event)
             .whenComplete((result, ex) -> {
@@ -46,13 +57,23 @@ public class LocationKafkaProducer {
     }
     
     /**
-     * Send batch update event
+     * Send one event summarising a batch upload, ordered oldest first
      */
-    public void sendBatchLocationUpdate(Long userId, int count) {
+    public void sendBatchLocationUpdate(Long userId, List<LocationPing> locations) {
+        LocationPing first = locations.get(0);
+        LocationPing newest = locations.get(locations.size() - 1);
+        int count = locations.size();
+        
         Map<String, Object> event = new HashMap<>();
         event.put("userId", userId);
         event.put("locationCount", count);
+        event.put("firstTimestamp", first.timestamp());
+        event.put("lastTimestamp", newest.timestamp());
+        event.put("latitude", newest.latitude());
+        event.put("longitude", newest.longitude());
+        event.put("accuracy", newest.accuracy());
         event.put("timestamp", System.currentTimeMillis());
+        event.put("publishedAt", System.currentTimeMillis());
         
         kafkaTemplate.send(batchUpdatesTopic, userId.toString(), event)
             .whenComplete((result, ex) -> {
@@ -64,4 +85,55 @@ public class LocationKafkaProducer {
                 }
             });
     }
+    
+    /**
+     * Send a geofence enter/exit event, keyed by the user who moved. The
+     * position is only included when the user who moved owns the geofence,
+     * so an event geofence never hands other users' coordinates to its owner.
+     */
+    public void sendGeofenceTransition(IndexedGeofence geofence, LocationPing location, String transition) {
+        Long userId = location.userId();
+        Map<String, Object> event = new HashMap<>();
+        event.put("geofenceId", geofence.id());
+        event.put("geofenceName", geofence.name());
+        event.put("geofenceType", geofence.type());
+        event.put("ownerId", geofence.userId());
+        event.put("userId", userId);
+        event.put("transition", transition);
+        if (userId.equals(geofence.userId())) {
+            event.put("latitude", location.latitude());
+            event.put("longitude", location.longitude());
+        }
+        event.put("timestamp", location.timestamp());
+        
+        kafkaTemplate.send(geofenceEventsTopic, userId.toString(), event)
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    log.debug("Geofence {} event sent for user {} and geofence {}", 
+                        transition, userId, geofence.id());
+                } else {
+                    log.error("Failed to send geofence event: {}", ex.getMessage());
+                }
+            });
+    }
+    
+    /**
+     * Send a proximity alert, keyed by the user to notify
+     */
+    public void sendBuddyNearby(Long userId, Long buddyId, double distance, LocalDateTime timestamp) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("userId", userId);
+        event.put("buddyId", buddyId);
+        event.put("distance", distance);
+        event.put("timestamp", timestamp);
+        
+        kafkaTemplate.send(buddyNearbyTopic, userId.toString(), event)
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    log.debug("Buddy nearby event sent for user {} and buddy {}", userId, buddyId);
+                } else {
+                    log.error("Failed to send buddy nearby event: {}", ex.getMessage());
+                }
+            });
+    }
 }
@@ -0,0 +1,164 @@
+package com.socialize.geolocation.kafka;
+
+import com.socialize.geolocation.index.EventLocationIndex;
+import com.socialize.geolocation.index.EventLocationIndex.EventLocation;
+import com.socialize.geolocation.model.dto.LocationDTO;
+import com.socialize.geolocation.service.LocationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps derived read models current from the location and event streams.
+ *
+ * Location updates (single and batch) refresh the user's materialized
+ * summary; the consumer group is shared because summaries live in Redis.
+ * Event notifications feed the local {@link EventLocationIndex}, so every
+ * instance reads them with its own group. Summaries take their nearby
+ * event count from that index when read, so events created or ended near
+ * a user who is not moving show up without waiting for their next update.
+ */
+@Component
+@Slf4j
+public class LocationStreamConsumer {
+    
+    private static final Set<String> REMOVED_EVENT_TYPES = Set.of("EVENT_CANCELLED", "EVENT_COMPLETED");
+    private static final Set<String> ENDED_EVENT_STATUSES = Set.of("CANCELLED", "COMPLETED");
+    
+    private final LocationService locationService;
+    private final EventLocationIndex eventLocationIndex;
+    private final Timer freshnessLag;
+    
+    public LocationStreamConsumer(
+            LocationService locationService,
+            EventLocationIndex eventLocationIndex,
+            MeterRegistry meterRegistry) {
+        this.locationService = locationService;
+        this.eventLocationIndex = eventLocationIndex;
+        this.freshnessLag = Timer.builder("location.summary.freshness.lag")
+            .description("Delay between publishing a location update and its summary being refreshed")
+            .register(meterRegistry);
+    }
+    
+    @KafkaListener(
+        topics = {"${kafka.topics.location-updates}", "${kafka.topics.location-batch-updates}"},
+        groupId = "geolocation-summary")
+    public void onLocationUpdate(Map<String, Object> message) {
+        try {
+            boolean batch = message.containsKey("locationCount");
+            LocationDTO current = LocationDTO.builder()
+                .userId(asLong(message.get("userId")))
+                .latitude(asDouble(message.get("latitude")))
+                .longitude(asDouble(message.get("longitude")))
+                .accuracy(asDouble(message.get("accuracy")))
+                .isCurrent(true)
+                .timestamp(asDateTime(message.get(batch ? "lastTimestamp" : "timestamp")))
+                .build();
+            
+            locationService.refreshSummary(current);
+            
+            Object publishedAt = message.get("publishedAt");
+            if (publishedAt instanceof Number millis) {
+                freshnessLag.record(Math.max(0, System.currentTimeMillis() - millis.longValue()),
+                    TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh location summary from {}: {}", message, e.getMessage());
+        }
+    }
+    
+    @KafkaListener(
+        topics = "${kafka.topics.event-notifications}",
+        groupId = "${kafka.groups.event-index}",
+        properties = {
+            "spring.json.use.type.headers=false",
+            "spring.json.value.default.type=java.util.HashMap"
+        })
+    public void onEventNotification(Map<String, Object> message) {
+        try {
+            Long eventId = asLong(message.get("eventId"));
+            String type = (String) message.get("eventType");
+            if (eventId == null || type == null) {
+                return;
+            }
+            
+            if (REMOVED_EVENT_TYPES.contains(type)
+                    || ENDED_EVENT_STATUSES.contains((String) message.get("eventStatus"))) {
+                eventLocationIndex.remove(eventId);
+                return;
+            }
+            
+            LocalDateTime endTime = asDateTime(message.get("endTime"));
+            if (endTime != null && !endTime.isAfter(LocalDateTime.now())) {
+                eventLocationIndex.remove(eventId);
+                return;
+            }
+            
+            Double latitude = asDouble(message.get("latitude"));
+            Double longitude = asDouble(message.get("longitude"));
+            if (latitude != null && longitude != null) {
+                eventLocationIndex.upsert(new EventLocation(
+                    eventId,
+                    (String) message.get("eventTitle"),
+                    (String) message.get("eventDescription"),
+                    asLong(message.get("hostId")),
+                    latitude,
+                    longitude,
+                    asDateTime(message.get("startTime")),
+                    endTime,
+                    asInteger(message.get("currentParticipants")),
+                    asInteger(message.get("maxParticipants"))));
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply event notification {}: {}", message, e.getMessage());
+        }
+    }
+    
+    private static Long asLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+    
+    private static Integer asInteger(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
+    }
+    
+    private static Double asDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+    
+    /**
+     * Producers write ISO-8601 strings; records already on the topics may
+     * still carry Jackson's {@code [y, M, d, h, m, s, nanos]} array or
+     * epoch milliseconds, read in the JVM zone like every other
+     * in-memory {@code LocalDateTime}
+     */
+    private static LocalDateTime asDateTime(Object value) {
+        if (value instanceof String text) {
+            return LocalDateTime.parse(text);
+        }
+        if (value instanceof List<?> parts && parts.size() >= 5) {
+            int[] fields = new int[7];
+            for (int i = 0; i < Math.min(parts.size(), fields.length); i++) {
+                if (!(parts.get(i) instanceof Number number)) {
+                    return null;
+                }
+                fields[i] = number.intValue();
+            }
+            return LocalDateTime.of(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6]);
+        }
+        if (value instanceof Number epochMillis) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis.longValue()), ZoneId.systemDefault());
+        }
+        return null;
+    }
+}
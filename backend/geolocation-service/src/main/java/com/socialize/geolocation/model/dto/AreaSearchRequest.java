@@ -0,0 +1,35 @@
+package com.socialize.geolocation.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AreaSearchRequest {
+    @NotNull(message = "Vertices are required")
+    @Size(min = 3, max = 500, message = "An area needs between 3 and 500 vertices")
+    private List<@Valid Vertex> vertices;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Vertex {
+        @NotNull(message = "Latitude is required")
+        @DecimalMin(value = "-90.0")
+        @DecimalMax(value = "90.0")
+        private Double latitude;
+        
+        @NotNull(message = "Longitude is required")
+        @DecimalMin(value = "-180.0")
+        @DecimalMax(value = "180.0")
+        private Double longitude;
+    }
+}
@@ -1,5 +1,6 @@
 package com.socialize.geolocation.model.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,5 +17,5 @@ import java.util.List;
 public class BatchLocationUpdateRequest {
     @NotNull
     @Size(min = 1, max = 100, message = "Batch size must be between 1 and 100")
-    private List<LocationUpdateRequest> locations;
+    private List<@Valid LocationUpdateRequest> locations;
 }
\ No newline at end of file
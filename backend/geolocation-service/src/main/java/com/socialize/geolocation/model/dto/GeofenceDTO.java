@@ -0,0 +1,26 @@
+package com.socialize.geolocation.model.dto;
+
+import com.socialize.geolocation.model.entity.GeofenceType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceDTO {
+    private Long id;
+    private Long userId;
+    private String name;
+    private Double latitude;
+    private Double longitude;
+    private Double radius; // in meters
+    private GeofenceType type;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastTriggeredAt;
+}
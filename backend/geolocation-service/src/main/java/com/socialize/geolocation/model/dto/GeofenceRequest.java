@@ -0,0 +1,36 @@
+package com.socialize.geolocation.model.dto;
+
+import com.socialize.geolocation.model.entity.GeofenceType;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceRequest {
+    @NotBlank(message = "Name is required")
+    @Size(max = 100)
+    private String name;
+    
+    @NotNull(message = "Latitude is required")
+    @DecimalMin(value = "-90.0")
+    @DecimalMax(value = "90.0")
+    private Double latitude;
+    
+    @NotNull(message = "Longitude is required")
+    @DecimalMin(value = "-180.0")
+    @DecimalMax(value = "180.0")
+    private Double longitude;
+    
+    @NotNull(message = "Radius is required")
+    @Min(value = 50, message = "Minimum radius is 50 meters")
+    @Max(value = 50000, message = "Maximum radius is 50km")
+    private Double radius; // in meters
+    
+    @NotNull(message = "Type is required")
+    private GeofenceType type;
+}
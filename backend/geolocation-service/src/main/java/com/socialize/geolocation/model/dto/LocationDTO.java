@@ -37,4 +37,9 @@ public class LocationDTO {
     private LocalDateTime timestamp;
     private String deviceId;
     private String provider;
+    
+    // Hints returned from updates: when to report next, and how far the
+    // user may move before reporting early
+    private Integer nextUpdateIntervalSeconds;
+    private Double minDisplacementMeters;
 }
\ No newline at end of file
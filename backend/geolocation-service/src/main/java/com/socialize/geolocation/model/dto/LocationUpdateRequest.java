@@ -24,10 +24,13 @@ public class LocationUpdateRequest {
     @DecimalMax(value = "180.0")
     private Double longitude;
     
+    @NotNull(message = "Accuracy is required")
+    @PositiveOrZero
     private Double accuracy;
     private Double altitude;
     private Double speed;
     private Double heading;
     private String deviceId;
     private String provider;
+    private LocalDateTime timestamp; // when the reading was taken; defaults to receipt time
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.socialize.geolocation.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change to a nearby-buddies subscription
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyBuddyDelta {
+    private DeltaType type;
+    private Long userId;
+    private Double latitude;
+    private Double longitude;
+    private Double distance; // in meters
+    private LocalDateTime lastUpdated;
+    
+    public enum DeltaType {
+        ENTERED,
+        MOVED,
+        LEFT
+    }
+}
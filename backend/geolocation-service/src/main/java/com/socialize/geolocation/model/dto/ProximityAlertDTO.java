@@ -0,0 +1,21 @@
+package com.socialize.geolocation.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProximityAlertDTO {
+    private Long id;
+    private Long userId;
+    private Long buddyId;
+    private Double thresholdMeters;
+    private Boolean mutual; // alerts only fire once the buddy has opted in too
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.socialize.geolocation.model.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProximityAlertRequest {
+    @NotNull(message = "Buddy ID is required")
+    private Long buddyId;
+    
+    @NotNull(message = "Threshold is required")
+    @Min(value = 50, message = "Minimum threshold is 50 meters")
+    @Max(value = 5000, message = "Maximum threshold is 5km")
+    private Double thresholdMeters;
+}
@@ -47,10 +47,3 @@ public class Geofence {
     @Column
     private LocalDateTime lastTriggeredAt;
 }
-
-enum GeofenceType {
-    EVENT,
-    HOME,
-    WORK,
-    CUSTOM
-}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.socialize.geolocation.model.entity;
+
+public enum GeofenceType {
+    EVENT,
+    HOME,
+    WORK,
+    CUSTOM
+}
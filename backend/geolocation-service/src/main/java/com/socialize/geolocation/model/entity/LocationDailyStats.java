@@ -0,0 +1,53 @@
+package com.socialize.geolocation.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "location_daily_stats")
+@IdClass(LocationDailyStats.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationDailyStats {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+    
+    @Column(nullable = false)
+    private Double distanceMeters;
+    
+    @Column(nullable = false)
+    private Integer updateCount;
+    
+    // Readings that carried an accuracy; min and max are null without any
+    @Column(nullable = false)
+    private Integer accuracyCount;
+    
+    @Column(nullable = false)
+    private Double accuracySum;
+    
+    private Double accuracyMin;
+    
+    private Double accuracyMax;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate statDate;
+    }
+}
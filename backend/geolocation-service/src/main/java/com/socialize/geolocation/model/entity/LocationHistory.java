@@ -10,8 +10,8 @@ import org.locationtech.jts.geom.Point;
 import java.time.LocalDateTime;
 
 @Entity
+// Range-partitioned by day on timestamp; see LocationHistoryPartitionManager
 @Table(name = "location_history", indexes = {
-    @Index(name = "idx_history_user_id", columnList = "user_id"),
     @Index(name = "idx_history_timestamp", columnList = "timestamp"),
     @Index(name = "idx_history_user_time", columnList = "user_id, timestamp")
 })
@@ -37,7 +37,6 @@ public class LocationHistory {
     @Column(name = "location_point", columnDefinition = "POINT SRID 4326", nullable = false)
     private Point locationPoint;
     
-    @Column(nullable = false)
     private Double accuracy;
     
     @Column(nullable = false)
@@ -0,0 +1,34 @@
+package com.socialize.geolocation.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "proximity_alerts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProximityAlert {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private Long buddyId;
+    
+    @Column(nullable = false)
+    private Double thresholdMeters;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
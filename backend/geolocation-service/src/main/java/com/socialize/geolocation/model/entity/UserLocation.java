@@ -5,18 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 import org.locationtech.jts.geom.Point;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_locations", indexes = {
-    @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_is_current", columnList = "is_current"),
-    @Index(name = "idx_user_current", columnList = "user_id, is_current"),
-    @Index(name = "idx_timestamp", columnList = "timestamp")
-})
+@Table(name = "user_locations",
+    uniqueConstraints = @UniqueConstraint(name = "uk_user_locations_user_id", columnNames = "user_id"),
+    indexes = @Index(name = "idx_timestamp", columnList = "timestamp")
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -45,12 +42,7 @@ public class UserLocation {
     private Double speed;    // in m/s
     private Double heading;  // in degrees (0-360)
 
-    @Builder.Default
-    @Column(name = "is_current", nullable = false)
-    private Boolean isCurrent = true;
-
-    @CreationTimestamp
-    @Column(nullable = false, updatable = false)
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 
     @Column(length = 100)
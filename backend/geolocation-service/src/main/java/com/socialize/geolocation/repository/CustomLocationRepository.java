@@ -1,16 +1,20 @@
 package com.socialize.geolocation.repository;
 
+import com.socialize.geolocation.index.GeoBounds;
 import com.socialize.geolocation.model.entity.UserLocation;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Repository
@@ -24,7 +28,9 @@ public class CustomLocationRepository {
         new GeometryFactory(new PrecisionModel(), 4326);
     
     /**
-     * Find nearby users with detailed information
+     * Find nearby users with detailed information. The radius's bounding
+     * box is filtered through the SPATIAL index first; only rows inside it
+     * get the exact distance.
      */
     @SuppressWarnings("unchecked")
     public List<Object[]> findNearbyUsersDetailed(
@@ -41,14 +47,17 @@ public class CustomLocationRepository {
                 ul.timestamp,
                 ST_Distance_Sphere(
                     ul.location_point,
-                    ST_GeomFromText(CONCAT('POINT(', :lng, ' ', :lat, ')'), 4326)
+                    ST_SRID(POINT(:lng, :lat), 4326)
                 ) as distance
             FROM user_locations ul
-            WHERE ul.is_current = true
+            WHERE MBRContains(
+                ST_GeomFromText(:boundingBox, 4326, 'axis-order=long-lat'),
+                ul.location_point
+            )
             AND ul.user_id != :currentUserId
             AND ST_Distance_Sphere(
                 ul.location_point,
-                ST_GeomFromText(CONCAT('POINT(', :lng, ' ', :lat, ')'), 4326)
+                ST_SRID(POINT(:lng, :lat), 4326)
             ) <= :radius
             ORDER BY distance
             """;
@@ -56,6 +65,7 @@ public class CustomLocationRepository {
         Query query = entityManager.createNativeQuery(sql);
         query.setParameter("lat", latitude);
         query.setParameter("lng", longitude);
+        query.setParameter("boundingBox", GeoBounds.around(latitude, longitude, radius).toWkt());
         query.setParameter("radius", radius);
         query.setParameter("currentUserId", currentUserId);
         
@@ -63,13 +73,33 @@ public class CustomLocationRepository {
     }
     
     /**
-     * Find users within polygon (for complex area searches)
+     * Find users within polygon (for complex area searches). The polygon's
+     * MBR is checked first so the spatial index narrows the scan before the
+     * exact containment test.
      */
     @SuppressWarnings("unchecked")
     public List<UserLocation> findUsersInPolygon(List<Coordinate> coordinates) {
-        // This is for future advanced features
-        // For now, return empty list
-        return List.of();
+        Polygon polygon = geometryFactory.createPolygon(closedRing(coordinates));
+        Geometry envelope = polygon.getEnvelope();
+        
+        String sql = """
+            SELECT ul.*
+            FROM user_locations ul
+            WHERE MBRContains(
+                ST_GeomFromText(:envelope, 4326, 'axis-order=long-lat'),
+                ul.location_point
+            )
+            AND ST_Contains(
+                ST_GeomFromText(:polygon, 4326, 'axis-order=long-lat'),
+                ul.location_point
+            )
+            """;
+        
+        Query query = entityManager.createNativeQuery(sql, UserLocation.class);
+        query.setParameter("envelope", envelope.toText());
+        query.setParameter("polygon", polygon.toText());
+        
+        return query.getResultList();
     }
     
     /**
@@ -79,6 +109,14 @@ public class CustomLocationRepository {
         return geometryFactory.createPoint(new Coordinate(longitude, latitude));
     }
     
+    private Coordinate[] closedRing(List<Coordinate> coordinates) {
+        List<Coordinate> ring = new ArrayList<>(coordinates);
+        if (!ring.get(0).equals2D(ring.get(ring.size() - 1))) {
+            ring.add(ring.get(0));
+        }
+        return ring.toArray(Coordinate[]::new);
+    }
+    
     /**
      * Calculate bearing between two points (direction)
      */
@@ -99,22 +137,21 @@ public class CustomLocationRepository {
     }
     
     /**
-     * Get spatial statistics for a user
+     * Get spatial statistics for a user from the daily rollups
      */
     @SuppressWarnings("unchecked")
     public List<Object[]> getUserLocationStatistics(Long userId, int days) {
         String sql = """
             SELECT 
-                DATE(timestamp) as date,
-                COUNT(*) as location_updates,
-                AVG(accuracy) as avg_accuracy,
-                MIN(accuracy) as min_accuracy,
-                MAX(accuracy) as max_accuracy
-            FROM user_locations
+                stat_date as date,
+                update_count as location_updates,
+                accuracy_sum / NULLIF(accuracy_count, 0) as avg_accuracy,
+                accuracy_min as min_accuracy,
+                accuracy_max as max_accuracy
+            FROM location_daily_stats
             WHERE user_id = :userId
-            AND timestamp >= DATE_SUB(NOW(), INTERVAL :days DAY)
-            GROUP BY DATE(timestamp)
-            ORDER BY date DESC
+            AND stat_date >= DATE_SUB(CURDATE(), INTERVAL :days DAY)
+            ORDER BY stat_date DESC
             """;
         
         Query query = entityManager.createNativeQuery(sql);
@@ -123,4 +160,4 @@ public class CustomLocationRepository {
         
         return query.getResultList();
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,14 @@ package com.socialize.geolocation.repository;
 
 import com.socialize.geolocation.model.entity.Geofence;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,15 +21,32 @@ public interface GeofenceRepository extends JpaRepository<Geofence, Long> {
     List<Geofence> findByUserIdAndIsActiveTrue(Long userId);
     
     /**
-     * Find geofences that contain a point
+     * Find all active geofences
+     */
+    List<Geofence> findByIsActiveTrue();
+    
+    /**
+     * Record when geofences last saw a transition
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Geofence g SET g.lastTriggeredAt = :triggeredAt WHERE g.id IN :ids")
+    int markTriggered(@Param("ids") Collection<Long> ids, @Param("triggeredAt") LocalDateTime triggeredAt);
+    
+    /**
+     * Find geofences that contain a point. The bounding box must cover the
+     * point padded by the largest geofence radius; it is matched against
+     * the SPATIAL index on center_point before the exact distance check.
      */
     @Query(value = """
         SELECT * FROM geofences g
-        WHERE g.is_active = true
-        AND ST_Distance_Sphere(
-            g.center_point,
-            ST_GeomFromText(:point, 4326)
-        ) <= g.radius
+        WHERE MBRContains(ST_GeomFromText(:boundingBox, 4326, 'axis-order=long-lat'), g.center_point)
+        AND g.is_active = true
+        AND ST_Distance_Sphere(g.center_point, ST_SRID(POINT(:lng, :lat), 4326)) <= g.radius
         """, nativeQuery = true)
-    List<Geofence> findGeofencesContainingPoint(@Param("point") String point);
-}
\ No newline at end of file
+    List<Geofence> findGeofencesContainingPoint(
+        @Param("lat") Double latitude,
+        @Param("lng") Double longitude,
+        @Param("boundingBox") String boundingBox
+    );
+}
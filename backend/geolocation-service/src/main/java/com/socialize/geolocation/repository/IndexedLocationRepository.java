@@ -0,0 +1,74 @@
+package com.socialize.geolocation.repository;
+
+import com.socialize.geolocation.index.IndexedLocation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Streams current locations straight into index records for startup
+ * loading. Only the indexed columns are read and no entities or JTS
+ * points are built, so memory stays flat however many users there are.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IndexedLocationRepository {
+    
+    private static final String SELECT_SQL = """
+        SELECT user_id, latitude, longitude, accuracy, timestamp
+        FROM user_locations
+        """;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Visit every current location; returns how many were visited
+     */
+    public long streamAll(Consumer<IndexedLocation> visitor) {
+        return stream(SELECT_SQL, null, visitor);
+    }
+    
+    /**
+     * Visit current locations written at or after the given database time
+     */
+    public long streamUpdatedSince(LocalDateTime since, Consumer<IndexedLocation> visitor) {
+        return stream(SELECT_SQL + "WHERE updated_at >= ?", since, visitor);
+    }
+    
+    /**
+     * Current time according to the database, which stamps updated_at
+     */
+    public LocalDateTime databaseNow() {
+        return jdbcTemplate.queryForObject("SELECT NOW(6)", LocalDateTime.class);
+    }
+    
+    private long stream(String sql, LocalDateTime since, Consumer<IndexedLocation> visitor) {
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Row-by-row streaming in MySQL Connector/J
+            statement.setFetchSize(Integer.MIN_VALUE);
+            if (since != null) {
+                // Compared as a wall-clock value, the same way NOW(6) returned it
+                statement.setObject(1, since);
+            }
+            return statement;
+        }, resultSet -> {
+            visitor.accept(new IndexedLocation(
+                resultSet.getLong("user_id"),
+                resultSet.getDouble("latitude"),
+                resultSet.getDouble("longitude"),
+                resultSet.getObject("accuracy", Double.class),
+                UtcTimestamps.read(resultSet, "timestamp")
+            ));
+            count[0]++;
+        });
+        return count[0];
+    }
+}
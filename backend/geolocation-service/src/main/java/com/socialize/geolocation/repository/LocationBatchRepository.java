@@ -0,0 +1,156 @@
+package com.socialize.geolocation.repository;
+
+import com.socialize.geolocation.ingest.DailyStatsDelta;
+import com.socialize.geolocation.ingest.LocationPing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for the ingest path, where per-entity JPA saves
+ * would cost one round trip per row
+ */
+@Repository
+@RequiredArgsConstructor
+public class LocationBatchRepository {
+    
+    private static final String INSERT_HISTORY_SQL = """
+        INSERT INTO location_history
+            (user_id, latitude, longitude, location_point, accuracy, timestamp)
+        VALUES (?, ?, ?, ST_SRID(POINT(?, ?), 4326), ?, ?)
+        """;
+    
+    /**
+     * One row per user. A reading older than the stored one leaves the
+     * row untouched, so late or replayed pings never move a user back.
+     * The timestamp column is assigned last because MySQL evaluates the
+     * update list left to right.
+     */
+    private static final String UPSERT_CURRENT_SQL = """
+        INSERT INTO user_locations
+            (user_id, latitude, longitude, location_point, accuracy, altitude,
+             speed, heading, timestamp, device_id, provider)
+        VALUES (?, ?, ?, ST_SRID(POINT(?, ?), 4326), ?, ?, ?, ?, ?, ?, ?) AS incoming
+        ON DUPLICATE KEY UPDATE
+            latitude = IF(incoming.timestamp >= user_locations.timestamp, incoming.latitude, user_locations.latitude),
+            longitude = IF(incoming.timestamp >= user_locations.timestamp, incoming.longitude, user_locations.longitude),
+            location_point = IF(incoming.timestamp >= user_locations.timestamp, incoming.location_point, user_locations.location_point),
+            accuracy = IF(incoming.timestamp >= user_locations.timestamp, incoming.accuracy, user_locations.accuracy),
+            altitude = IF(incoming.timestamp >= user_locations.timestamp, incoming.altitude, user_locations.altitude),
+            speed = IF(incoming.timestamp >= user_locations.timestamp, incoming.speed, user_locations.speed),
+            heading = IF(incoming.timestamp >= user_locations.timestamp, incoming.heading, user_locations.heading),
+            device_id = IF(incoming.timestamp >= user_locations.timestamp, incoming.device_id, user_locations.device_id),
+            provider = IF(incoming.timestamp >= user_locations.timestamp, incoming.provider, user_locations.provider),
+            timestamp = GREATEST(incoming.timestamp, user_locations.timestamp)
+        """;
+    
+    private static final String UPSERT_DAILY_STATS_SQL = """
+        INSERT INTO location_daily_stats
+            (user_id, stat_date, distance_meters, update_count, accuracy_count,
+             accuracy_sum, accuracy_min, accuracy_max)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?) AS incoming
+        ON DUPLICATE KEY UPDATE
+            distance_meters = location_daily_stats.distance_meters + incoming.distance_meters,
+            update_count = location_daily_stats.update_count + incoming.update_count,
+            accuracy_count = location_daily_stats.accuracy_count + incoming.accuracy_count,
+            accuracy_sum = location_daily_stats.accuracy_sum + incoming.accuracy_sum,
+            accuracy_min = COALESCE(LEAST(location_daily_stats.accuracy_min, incoming.accuracy_min),
+                location_daily_stats.accuracy_min, incoming.accuracy_min),
+            accuracy_max = COALESCE(GREATEST(location_daily_stats.accuracy_max, incoming.accuracy_max),
+                location_daily_stats.accuracy_max, incoming.accuracy_max)
+        """;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Upsert the current location of each user as a single JDBC batch
+     */
+    public void upsertCurrentLocations(Collection<LocationPing> pings) {
+        jdbcTemplate.batchUpdate(UPSERT_CURRENT_SQL, pings, pings.size(), (ps, ping) -> {
+            ps.setLong(1, ping.userId());
+            ps.setDouble(2, ping.latitude());
+            ps.setDouble(3, ping.longitude());
+            ps.setDouble(4, ping.longitude());
+            ps.setDouble(5, ping.latitude());
+            ps.setObject(6, ping.accuracy(), Types.DOUBLE);
+            ps.setObject(7, ping.altitude(), Types.DOUBLE);
+            ps.setObject(8, ping.speed(), Types.DOUBLE);
+            ps.setObject(9, ping.heading(), Types.DOUBLE);
+            UtcTimestamps.bind(ps, 10, ping.timestamp());
+            ps.setString(11, ping.deviceId());
+            ps.setString(12, ping.provider());
+        });
+    }
+    
+    /**
+     * Insert history rows as a single JDBC batch and return their
+     * generated ids in insertion order
+     */
+    public long[] insertHistory(List<LocationPing> pings) {
+        if (pings.isEmpty()) {
+            return new long[0];
+        }
+        
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(INSERT_HISTORY_SQL, Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    LocationPing ping = pings.get(i);
+                    ps.setLong(1, ping.userId());
+                    ps.setDouble(2, ping.latitude());
+                    ps.setDouble(3, ping.longitude());
+                    ps.setDouble(4, ping.longitude());
+                    ps.setDouble(5, ping.latitude());
+                    ps.setObject(6, ping.accuracy(), Types.DOUBLE);
+                    UtcTimestamps.bind(ps, 7, ping.timestamp());
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return pings.size();
+                }
+            },
+            keyHolder);
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        long[] ids = new long[pings.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i < keys.size() && keys.get(i).values().iterator().next() instanceof Number id
+                ? id.longValue()
+                : -1L;
+        }
+        return ids;
+    }
+    
+    /**
+     * Add rollup increments to the per-user daily stats as a single JDBC batch
+     */
+    public void upsertDailyStats(Collection<DailyStatsDelta> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT_DAILY_STATS_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setLong(1, delta.userId());
+            ps.setDate(2, Date.valueOf(delta.statDate()));
+            ps.setDouble(3, delta.distanceMeters());
+            ps.setInt(4, delta.updateCount());
+            ps.setInt(5, delta.accuracyCount());
+            ps.setDouble(6, delta.accuracySum());
+            // Min and max stay NULL for a day with no accuracy readings yet
+            boolean hasAccuracy = delta.accuracyCount() > 0;
+            ps.setObject(7, hasAccuracy ? delta.accuracyMin() : null, Types.DOUBLE);
+            ps.setObject(8, hasAccuracy ? delta.accuracyMax() : null, Types.DOUBLE);
+        });
+    }
+}
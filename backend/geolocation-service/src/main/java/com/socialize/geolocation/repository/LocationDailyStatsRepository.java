@@ -0,0 +1,28 @@
+package com.socialize.geolocation.repository;
+
+import com.socialize.geolocation.model.entity.LocationDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LocationDailyStatsRepository
+        extends JpaRepository<LocationDailyStats, LocationDailyStats.Key> {
+    
+    /**
+     * Daily rollups for a user since a date, newest first
+     */
+    List<LocationDailyStats> findByUserIdAndStatDateGreaterThanEqualOrderByStatDateDesc(
+        Long userId, LocalDate since);
+    
+    /**
+     * Total distance (meters) traveled by a user since a date
+     */
+    @Query("SELECT COALESCE(SUM(s.distanceMeters), 0) FROM LocationDailyStats s " +
+           "WHERE s.userId = :userId AND s.statDate >= :since")
+    Double sumDistanceSince(@Param("userId") Long userId, @Param("since") LocalDate since);
+}
@@ -4,7 +4,6 @@ import com.socialize.geolocation.model.entity.LocationHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,9 +16,17 @@ import java.util.List;
 public interface LocationHistoryRepository extends JpaRepository<LocationHistory, Long> {
     
     /**
-     * Find location history for a user with pagination
+     * Find location history for a user with pagination. The lower time
+     * bound keeps the query to the partitions it needs.
      */
-    Page<LocationHistory> findByUserIdOrderByTimestampDesc(Long userId, Pageable pageable);
+    Page<LocationHistory> findByUserIdAndTimestampAfterOrderByTimestampDesc(
+        Long userId, LocalDateTime since, Pageable pageable);
+    
+    /**
+     * Count history rows strictly between two points in time
+     */
+    long countByUserIdAndTimestampAfterAndTimestampBefore(
+        Long userId, LocalDateTime after, LocalDateTime before);
     
     /**
      * Find location history within time range
@@ -33,40 +40,8 @@ public interface LocationHistoryRepository extends JpaRepository<LocationHistory
     );
     
     /**
-     * Calculate total distance traveled (simplified)
-     */
-    @Query(value = """
-        SELECT SUM(
-            ST_Distance_Sphere(
-                lh1.location_point,
-                lh2.location_point
-            )
-        ) / 1000 as total_distance_km
-        FROM location_history lh1
-        INNER JOIN location_history lh2 ON lh1.user_id = lh2.user_id
-        WHERE lh1.user_id = :userId
-        AND lh1.timestamp > lh2.timestamp
-        AND lh1.id = (
-            SELECT MIN(id) FROM location_history 
-            WHERE user_id = :userId AND timestamp > lh2.timestamp
-        )
-        AND lh1.timestamp BETWEEN :startTime AND :endTime
-        """, nativeQuery = true)
-    Double calculateTotalDistanceTraveled(
-        @Param("userId") Long userId,
-        @Param("startTime") LocalDateTime startTime,
-        @Param("endTime") LocalDateTime endTime
-    );
-    
-    /**
-     * Delete old history records
-     */
-    @Modifying
-    @Query("DELETE FROM LocationHistory lh WHERE lh.timestamp < :cutoffDate")
-    void deleteOldHistory(@Param("cutoffDate") LocalDateTime cutoffDate);
-    
-    /**
-     * Get latest location from history
+     * Get latest location from history since a point in time
      */
-    Optional<LocationHistory> findFirstByUserIdOrderByTimestampDesc(Long userId);
+    Optional<LocationHistory> findFirstByUserIdAndTimestampAfterOrderByTimestampDesc(
+        Long userId, LocalDateTime since);
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.socialize.geolocation.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.model.dto.UserLocationSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Materialized per-user location summaries in Redis, one JSON value per
+ * user, written by the location stream consumer
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class LocationSummaryRepository {
+    
+    private static final String KEY_PREFIX = "location:summary:";
+    
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final LocationProperties locationProperties;
+    
+    public Optional<UserLocationSummary> findByUserId(Long userId) {
+        String json = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+        if (json == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(json, UserLocationSummary.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable location summary for user {}: {}", userId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    public void save(UserLocationSummary summary) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + summary.getUserId(),
+                objectMapper.writeValueAsString(summary),
+                Duration.ofHours(locationProperties.getSummaryTtlHours()));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize location summary for user {}: {}",
+                summary.getUserId(), e.getMessage());
+        }
+    }
+}
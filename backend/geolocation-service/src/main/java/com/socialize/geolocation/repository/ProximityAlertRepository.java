@@ -0,0 +1,21 @@
+package com.socialize.geolocation.repository;
+
+import com.socialize.geolocation.model.entity.ProximityAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProximityAlertRepository extends JpaRepository<ProximityAlert, Long> {
+    
+    /**
+     * Buddies a user is alerted about
+     */
+    List<ProximityAlert> findByUserId(Long userId);
+    
+    Optional<ProximityAlert> findByUserIdAndBuddyId(Long userId, Long buddyId);
+    
+    boolean existsByUserIdAndBuddyId(Long userId, Long buddyId);
+}
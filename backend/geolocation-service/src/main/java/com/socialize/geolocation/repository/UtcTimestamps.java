@@ -0,0 +1,32 @@
+package com.socialize.geolocation.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * DATETIME binding for raw JDBC, matching Hibernate's
+ * {@code hibernate.jdbc.time_zone: UTC}: in-memory {@code LocalDateTime}s
+ * are JVM-local and are stored converted to UTC, so rows written or read
+ * here line up with the JPA paths whatever the JVM zone is
+ */
+final class UtcTimestamps {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private UtcTimestamps() {
+    }
+
+    static void bind(PreparedStatement statement, int index, LocalDateTime value) throws SQLException {
+        statement.setTimestamp(index, Timestamp.valueOf(value), Calendar.getInstance(UTC));
+    }
+
+    static LocalDateTime read(ResultSet resultSet, String column) throws SQLException {
+        Timestamp timestamp = resultSet.getTimestamp(column, Calendar.getInstance(UTC));
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.socialize.geolocation.service;
+
+import com.socialize.common.dto.ApiResponse;
+import com.socialize.geolocation.client.EventServiceClient;
+import com.socialize.geolocation.client.UserServiceClient;
+import com.socialize.geolocation.client.UserServiceClient.UserDTO;
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.model.dto.NearbyUserDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Attaches profile and active-event data to nearby candidates.
+ *
+ * Lookups go to the bulk endpoints of user-service and event-service in
+ * chunks of {@code location.batch-size}, fanned out concurrently under a
+ * shared deadline. Profiles are kept in a short-TTL local cache, so a
+ * nearby query costs a bounded number of remote calls regardless of how
+ * many buddies it returns.
+ */
+@Service
+@Slf4j
+public class BuddyEnrichmentService {
+
+    private static final int MAX_CACHED_PROFILES = 50000;
+
+    private final UserServiceClient userServiceClient;
+    private final EventServiceClient eventServiceClient;
+    private final Executor enrichmentExecutor;
+    private final LocationProperties locationProperties;
+
+    private final Map<Long, CachedProfile> profileCache = new ConcurrentHashMap<>();
+
+    public BuddyEnrichmentService(
+            UserServiceClient userServiceClient,
+            EventServiceClient eventServiceClient,
+            @Qualifier("enrichmentExecutor") Executor enrichmentExecutor,
+            LocationProperties locationProperties) {
+        this.userServiceClient = userServiceClient;
+        this.eventServiceClient = eventServiceClient;
+        this.enrichmentExecutor = enrichmentExecutor;
+        this.locationProperties = locationProperties;
+    }
+
+    /**
+     * Build nearby user DTOs, keeping candidate order. Users whose profile
+     * could not be fetched before the deadline are returned without one.
+     */
+    public List<NearbyUserDTO> enrich(List<NearbyCandidate> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> userIds = candidates.stream()
+            .map(candidate -> candidate.location().userId())
+            .toList();
+
+        Map<Long, UserDTO> profiles = new HashMap<>();
+        List<Long> missingProfiles = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long userId : userIds) {
+            CachedProfile cached = profileCache.get(userId);
+            if (cached != null && cached.expiresAt() > now) {
+                profiles.put(userId, cached.profile());
+            } else {
+                missingProfiles.add(userId);
+            }
+        }
+
+        List<CompletableFuture<List<UserDTO>>> profileFutures = chunk(missingProfiles).stream()
+            .map(ids -> CompletableFuture.supplyAsync(
+                () -> unwrap(userServiceClient.getUsersByIds(
+                    new UserServiceClient.BatchUserRequest(ids))),
+                enrichmentExecutor))
+            .toList();
+
+        List<CompletableFuture<List<Long>>> activeFutures = chunk(userIds).stream()
+            .map(ids -> CompletableFuture.supplyAsync(
+                () -> unwrap(eventServiceClient.findUsersWithActiveEvents(
+                    new EventServiceClient.ActiveEventsCheckRequest(ids))),
+                enrichmentExecutor))
+            .toList();
+
+        awaitDeadline(profileFutures, activeFutures);
+
+        long expiresAt = System.currentTimeMillis()
+            + TimeUnit.SECONDS.toMillis(locationProperties.getProfileCacheTtlSeconds());
+        for (List<UserDTO> batch : completedResults(profileFutures)) {
+            for (UserDTO profile : batch) {
+                profiles.put(profile.id(), profile);
+                profileCache.put(profile.id(), new CachedProfile(profile, expiresAt));
+            }
+        }
+
+        Set<Long> activeUserIds = new HashSet<>();
+        completedResults(activeFutures).forEach(activeUserIds::addAll);
+
+        evictExpiredProfiles();
+
+        List<NearbyUserDTO> nearbyUsers = new ArrayList<>(candidates.size());
+        for (NearbyCandidate candidate : candidates) {
+            Long userId = candidate.location().userId();
+            UserDTO profile = profiles.get(userId);
+
+            nearbyUsers.add(NearbyUserDTO.builder()
+                .userId(userId)
+                .username(profile != null ? profile.username() : null)
+                .profileImageUrl(profile != null ? profile.profileImageUrl() : null)
+                .latitude(candidate.location().latitude())
+                .longitude(candidate.location().longitude())
+                .distance(candidate.distance())
+                .lastUpdated(candidate.location().timestamp())
+                .hasActiveEvents(activeUserIds.contains(userId))
+                .build());
+        }
+
+        return nearbyUsers;
+    }
+
+    private void awaitDeadline(List<? extends CompletableFuture<?>> first,
+                               List<? extends CompletableFuture<?>> second) {
+        List<CompletableFuture<?>> all = new ArrayList<>(first);
+        all.addAll(second);
+
+        try {
+            CompletableFuture.allOf(all.toArray(CompletableFuture[]::new))
+                .get(locationProperties.getEnrichmentTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Enrichment deadline of {} ms exceeded, returning partial results",
+                locationProperties.getEnrichmentTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Error enriching nearby users: {}", e.getMessage());
+        }
+    }
+
+    private <T> List<T> completedResults(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<T> future : futures) {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                results.add(future.join());
+            } else {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private List<List<Long>> chunk(List<Long> ids) {
+        int size = locationProperties.getBatchSize();
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += size) {
+            chunks.add(ids.subList(i, Math.min(i + size, ids.size())));
+        }
+        return chunks;
+    }
+
+    private <T> List<T> unwrap(ApiResponse<List<T>> response) {
+        return response != null && response.getData() != null ? response.getData() : List.of();
+    }
+
+    private void evictExpiredProfiles() {
+        if (profileCache.size() <= MAX_CACHED_PROFILES) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        profileCache.values().removeIf(cached -> cached.expiresAt() <= now);
+        if (profileCache.size() > MAX_CACHED_PROFILES) {
+            profileCache.clear();
+        }
+    }
+
+    private record CachedProfile(UserDTO profile, long expiresAt) {}
+}
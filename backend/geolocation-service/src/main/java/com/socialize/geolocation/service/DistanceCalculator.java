@@ -1,11 +1,30 @@
 package com.socialize.geolocation.service;
 
+import com.socialize.geolocation.config.LocationProperties;
 import org.springframework.stereotype.Component;
 
+/**
+ * Great-circle distances in meters.
+ *
+ * The primitive {@link #distance} methods are the hot path for index
+ * refinement and sorting: they do not allocate, and below
+ * {@code location.fast-distance-threshold-meters} they use the
+ * equirectangular approximation (one cosine, one square root) instead of
+ * haversine. Up to 20 km and between latitudes ±80° the approximation stays
+ * within 0.3 m of haversine (relative error below 2e-5); beyond either
+ * limit the exact formula is used.
+ */
 @Component
 public class DistanceCalculator {
     
     private static final int EARTH_RADIUS = 6371000; // meters
+    private static final double FAST_PATH_MAX_LATITUDE = 80.0;
+    
+    private final double fastPathThreshold;
+    
+    public DistanceCalculator(LocationProperties locationProperties) {
+        this.fastPathThreshold = locationProperties.getFastDistanceThresholdMeters();
+    }
     
     /**
      * Calculate distance between two points using Haversine formula
@@ -15,17 +34,86 @@ public class DistanceCalculator {
             Double lat1, Double lon1, 
             Double lat2, Double lon2) {
         
+        return haversine(lat1, lon1, lat2, lon2);
+    }
+    
+    /**
+     * Distance in meters, using the equirectangular fast path for short
+     * separations
+     */
+    public double distance(double lat1, double lon1, double lat2, double lon2) {
+        double meanLat = (lat1 + lat2) * 0.5;
+        if (Math.abs(meanLat) <= FAST_PATH_MAX_LATITUDE) {
+            double approximate = equirectangular(lat1, lon1, lat2, lon2, Math.cos(Math.toRadians(meanLat)));
+            if (approximate < fastPathThreshold) {
+                return approximate;
+            }
+        }
+        return haversine(lat1, lon1, lat2, lon2);
+    }
+    
+    /**
+     * Distances in meters from one origin to the first {@code count} points
+     * of the arrays, written into {@code out}. {@code cosLats} holds the
+     * cosine of each point's latitude (see {@link #cosines}) so callers that
+     * reuse the same points pay for them once.
+     */
+    public void distances(
+            double lat, double lon,
+            double[] lats, double[] lons, double[] cosLats,
+            int count, double[] out) {
+        
+        double latRad = Math.toRadians(lat);
+        double cosLat = Math.cos(latRad);
+        boolean fastPathLatitude = Math.abs(lat) <= FAST_PATH_MAX_LATITUDE;
+        
+        for (int i = 0; i < count; i++) {
+            double dLat = Math.toRadians(lats[i] - lat);
+            double dLon = Math.toRadians(wrapLongitude(lons[i] - lon));
+            
+            if (fastPathLatitude) {
+                // cos(mean latitude) ~ mean of the cosines over these spans
+                double x = dLon * (cosLat + cosLats[i]) * 0.5;
+                double approximate = EARTH_RADIUS * Math.sqrt(x * x + dLat * dLat);
+                if (approximate < fastPathThreshold) {
+                    out[i] = approximate;
+                    continue;
+                }
+            }
+            
+            double sinLat = Math.sin(dLat * 0.5);
+            double sinLon = Math.sin(dLon * 0.5);
+            double a = sinLat * sinLat + cosLat * cosLats[i] * sinLon * sinLon;
+            out[i] = 2 * EARTH_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+        }
+    }
+    
+    /**
+     * Cosines of the given latitudes, for {@link #distances}
+     */
+    public static double[] cosines(double[] lats, int count) {
+        double[] cosLats = new double[count];
+        for (int i = 0; i < count; i++) {
+            cosLats[i] = Math.cos(Math.toRadians(lats[i]));
+        }
+        return cosLats;
+    }
+    
+    /**
+     * Exact haversine distance in meters
+     */
+    public double haversine(double lat1, double lon1, double lat2, double lon2) {
         double dLat = Math.toRadians(lat2 - lat1);
         double dLon = Math.toRadians(lon2 - lon1);
         
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+        double sinLat = Math.sin(dLat * 0.5);
+        double sinLon = Math.sin(dLon * 0.5);
+        double a = sinLat * sinLat +
                    Math.cos(Math.toRadians(lat1)) * 
                    Math.cos(Math.toRadians(lat2)) *
-                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
+                   sinLon * sinLon;
         
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return EARTH_RADIUS * c;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(a)));
     }
     
     /**
@@ -36,12 +124,7 @@ public class DistanceCalculator {
             Double pointLat, Double pointLon,
             Double radius) {
         
-        Double distance = calculateDistance(
-            centerLat, centerLon, 
-            pointLat, pointLon
-        );
-        
-        return distance <= radius;
+        return distance(centerLat, centerLon, pointLat, pointLon) <= radius;
     }
     
     /**
@@ -62,4 +145,21 @@ public class DistanceCalculator {
         double bearing = Math.toDegrees(Math.atan2(y, x));
         return (bearing + 360) % 360;
     }
-}
\ No newline at end of file
+    
+    private static double equirectangular(
+            double lat1, double lon1, double lat2, double lon2, double cosMeanLat) {
+        double x = Math.toRadians(wrapLongitude(lon2 - lon1)) * cosMeanLat;
+        double y = Math.toRadians(lat2 - lat1);
+        return EARTH_RADIUS * Math.sqrt(x * x + y * y);
+    }
+    
+    private static double wrapLongitude(double degrees) {
+        if (degrees > 180.0) {
+            return degrees - 360.0;
+        }
+        if (degrees < -180.0) {
+            return degrees + 360.0;
+        }
+        return degrees;
+    }
+}
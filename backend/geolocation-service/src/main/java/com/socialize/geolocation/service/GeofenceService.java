@@ -0,0 +1,194 @@
+package com.socialize.geolocation.service;
+
+import com.socialize.geolocation.exception.GeofenceNotAllowedException;
+import com.socialize.geolocation.exception.GeofenceNotFoundException;
+import com.socialize.geolocation.index.GeofenceIndex;
+import com.socialize.geolocation.index.IndexedGeofence;
+import com.socialize.geolocation.ingest.LocationPing;
+import com.socialize.geolocation.kafka.LocationKafkaProducer;
+import com.socialize.geolocation.model.dto.GeofenceDTO;
+import com.socialize.geolocation.model.dto.GeofenceRequest;
+import com.socialize.geolocation.model.entity.Geofence;
+import com.socialize.geolocation.model.entity.GeofenceType;
+import com.socialize.geolocation.repository.CustomLocationRepository;
+import com.socialize.geolocation.repository.GeofenceRepository;
+import com.socialize.geolocation.store.GeofenceMembershipStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Manages geofences and evaluates location updates against them.
+ *
+ * Active geofences live in the {@link GeofenceIndex}, which is updated on
+ * every change made through this service and periodically resynced with
+ * MySQL. For each user the set of geofences they were last inside is kept
+ * in the {@link GeofenceMembershipStore}, so ENTER and EXIT events are
+ * published only on transitions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeofenceService {
+    
+    private static final String ENTER = "ENTER";
+    private static final String EXIT = "EXIT";
+    
+    private final GeofenceRepository geofenceRepository;
+    private final CustomLocationRepository customLocationRepository;
+    private final GeofenceIndex geofenceIndex;
+    private final LocationKafkaProducer kafkaProducer;
+    private final GeofenceMembershipStore geofenceMembershipStore;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reloadIndex();
+    }
+    
+    /**
+     * Rebuild the geofence index from MySQL to pick up changes made
+     * elsewhere
+     */
+    @Scheduled(fixedDelayString = "${location.geofence-reload-interval-ms:60000}",
+        initialDelayString = "${location.geofence-reload-interval-ms:60000}")
+    public void reloadIndex() {
+        try {
+            List<IndexedGeofence> active = geofenceRepository.findByIsActiveTrue().stream()
+                .map(IndexedGeofence::from)
+                .toList();
+            geofenceIndex.replaceAll(active);
+            log.debug("Geofence index reloaded with {} active geofences", active.size());
+        } catch (Exception e) {
+            log.error("Failed to reload geofence index: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Create a personal geofence for a user. EVENT geofences apply to
+     * every user who crosses them, so they cannot be created here.
+     */
+    public GeofenceDTO createGeofence(Long userId, GeofenceRequest request) {
+        log.info("Creating geofence '{}' for user: {}", request.getName(), userId);
+        
+        if (request.getType() == GeofenceType.EVENT) {
+            throw new GeofenceNotAllowedException("Event geofences cannot be created by users");
+        }
+        
+        Geofence geofence = geofenceRepository.save(Geofence.builder()
+            .userId(userId)
+            .name(request.getName())
+            .centerPoint(customLocationRepository.createPoint(
+                request.getLatitude(), request.getLongitude()))
+            .radius(request.getRadius())
+            .type(request.getType())
+            .createdAt(LocalDateTime.now())
+            .build());
+        
+        geofenceIndex.upsert(IndexedGeofence.from(geofence));
+        return convertToGeofenceDTO(geofence);
+    }
+    
+    /**
+     * Get a user's active geofences
+     */
+    public List<GeofenceDTO> getGeofences(Long userId) {
+        return geofenceRepository.findByUserIdAndIsActiveTrue(userId).stream()
+            .map(this::convertToGeofenceDTO)
+            .toList();
+    }
+    
+    /**
+     * Deactivate one of a user's geofences
+     */
+    public void deactivateGeofence(Long userId, Long geofenceId) {
+        Geofence geofence = geofenceRepository.findById(geofenceId)
+            .filter(existing -> existing.getUserId().equals(userId))
+            .orElseThrow(() -> new GeofenceNotFoundException(
+                "Geofence not found: " + geofenceId));
+        
+        geofence.setIsActive(false);
+        geofenceRepository.save(geofence);
+        geofenceIndex.remove(geofenceId);
+    }
+    
+    /**
+     * Compare a new position with the user's last known geofence membership
+     * and publish ENTER/EXIT events for the differences. Readings older than
+     * the last evaluated one are ignored.
+     */
+    public void evaluate(LocationPing ping) {
+        Set<Long> inside = new HashSet<>();
+        List<IndexedGeofence> containing = geofenceIndex.findContaining(
+            ping.latitude(), ping.longitude(), ping.userId());
+        containing.forEach(geofence -> inside.add(geofence.id()));
+        
+        Optional<Set<Long>> previous = geofenceMembershipStore.swap(ping.userId(), inside, ping.timestamp());
+        if (previous.isEmpty()) {
+            return;
+        }
+        
+        Set<Long> before = previous.get();
+        List<IndexedGeofence> entered = new ArrayList<>();
+        List<Long> exited = new ArrayList<>();
+        for (IndexedGeofence geofence : containing) {
+            if (!before.contains(geofence.id())) {
+                entered.add(geofence);
+            }
+        }
+        for (Long geofenceId : before) {
+            if (!inside.contains(geofenceId)) {
+                exited.add(geofenceId);
+            }
+        }
+        
+        if (entered.isEmpty() && exited.isEmpty()) {
+            return;
+        }
+        
+        List<Long> triggered = new ArrayList<>();
+        for (IndexedGeofence geofence : entered) {
+            kafkaProducer.sendGeofenceTransition(geofence, ping, ENTER);
+            triggered.add(geofence.id());
+        }
+        for (Long geofenceId : exited) {
+            // Geofences deactivated since the last update exit silently
+            geofenceIndex.get(geofenceId).ifPresent(geofence -> {
+                kafkaProducer.sendGeofenceTransition(geofence, ping, EXIT);
+                triggered.add(geofenceId);
+            });
+        }
+        
+        if (!triggered.isEmpty()) {
+            try {
+                geofenceRepository.markTriggered(triggered, ping.timestamp());
+            } catch (Exception e) {
+                log.error("Failed to record geofence triggers {}: {}", triggered, e.getMessage());
+            }
+        }
+    }
+    
+    private GeofenceDTO convertToGeofenceDTO(Geofence geofence) {
+        return GeofenceDTO.builder()
+            .id(geofence.getId())
+            .userId(geofence.getUserId())
+            .name(geofence.getName())
+            .latitude(geofence.getCenterPoint().getY())
+            .longitude(geofence.getCenterPoint().getX())
+            .radius(geofence.getRadius())
+            .type(geofence.getType())
+            .isActive(geofence.getIsActive())
+            .createdAt(geofence.getCreatedAt())
+            .lastTriggeredAt(geofence.getLastTriggeredAt())
+            .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.socialize.geolocation.service;
+
+import com.socialize.geolocation.config.LocationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the daily RANGE partitions of location_history.
+ *
+ * Partitions are created ahead of time by splitting the (normally empty)
+ * catch-all pmax partition, and retention drops whole partitions, so both
+ * cost the same regardless of how many rows they hold.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationHistoryPartitionManager {
+
+    private static final String TABLE = "location_history";
+    private static final String CATCH_ALL = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+
+    // MySQL TO_DAYS('1970-01-01')
+    private static final long TO_DAYS_EPOCH_OFFSET = 719528L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocationProperties locationProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Failed to create location history partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ensure a daily partition exists for today and the configured number
+     * of days ahead
+     */
+    public void createUpcomingPartitions() {
+        LocalDate lastDay = LocalDate.now().plusDays(locationProperties.getHistoryPartitionAheadDays());
+
+        // Exclusive upper bound of the newest daily partition; pmax alone
+        // means the first split also absorbs all existing rows
+        LocalDate nextDay = dailyPartitionBounds().stream()
+            .max(LocalDate::compareTo)
+            .orElse(LocalDate.now());
+
+        List<String> definitions = new ArrayList<>();
+        for (LocalDate day = nextDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            definitions.add(String.format("PARTITION %s VALUES LESS THAN (%d)",
+                PARTITION_NAME.format(day), toDays(day.plusDays(1))));
+        }
+
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        definitions.add("PARTITION " + CATCH_ALL + " VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + CATCH_ALL
+            + " INTO (" + String.join(", ", definitions) + ")");
+
+        log.info("Created {} location history partitions through {}", definitions.size() - 1, lastDay);
+    }
+
+    /**
+     * Drop every daily partition whose rows are all older than the cutoff
+     */
+    public void dropExpiredPartitions(int retentionDays) {
+        long cutoff = toDays(LocalDate.now().minusDays(retentionDays));
+
+        List<String> expired = jdbcTemplate.queryForList("""
+            SELECT PARTITION_NAME
+            FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE()
+            AND TABLE_NAME = ?
+            AND PARTITION_DESCRIPTION != 'MAXVALUE'
+            AND CAST(PARTITION_DESCRIPTION AS UNSIGNED) <= ?
+            """, String.class, TABLE, cutoff);
+
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired));
+        log.info("Dropped {} expired location history partitions: {}", expired.size(), expired);
+    }
+
+    /**
+     * Exclusive upper bounds of the existing daily partitions
+     */
+    private List<LocalDate> dailyPartitionBounds() {
+        return jdbcTemplate.queryForList("""
+            SELECT CAST(PARTITION_DESCRIPTION AS UNSIGNED)
+            FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE()
+            AND TABLE_NAME = ?
+            AND PARTITION_DESCRIPTION != 'MAXVALUE'
+            """, Long.class, TABLE)
+            .stream()
+            .map(days -> LocalDate.ofEpochDay(days - TO_DAYS_EPOCH_OFFSET))
+            .toList();
+    }
+
+    private static long toDays(LocalDate date) {
+        return date.toEpochDay() + TO_DAYS_EPOCH_OFFSET;
+    }
+}
@@ -0,0 +1,69 @@
+package com.socialize.geolocation.service;
+
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.ingest.LocationPing;
+import com.socialize.geolocation.model.dto.LocationDTO;
+import com.socialize.geolocation.model.entity.UserLocation;
+
+/**
+ * Conversions of the current-location representations to {@link LocationDTO}
+ */
+public final class LocationMapper {
+    
+    private LocationMapper() {
+    }
+    
+    /**
+     * Stored current location, with every column
+     */
+    public static LocationDTO toLocationDTO(UserLocation location) {
+        return LocationDTO.builder()
+            .id(location.getId())
+            .userId(location.getUserId())
+            .latitude(location.getLatitude())
+            .longitude(location.getLongitude())
+            .accuracy(location.getAccuracy())
+            .altitude(location.getAltitude())
+            .speed(location.getSpeed())
+            .heading(location.getHeading())
+            .isCurrent(true)
+            .timestamp(location.getTimestamp())
+            .deviceId(location.getDeviceId())
+            .provider(location.getProvider())
+            .build();
+    }
+    
+    /**
+     * Accepted ping, before it has been persisted
+     */
+    public static LocationDTO toLocationDTO(LocationPing ping) {
+        return LocationDTO.builder()
+            .userId(ping.userId())
+            .latitude(ping.latitude())
+            .longitude(ping.longitude())
+            .accuracy(ping.accuracy())
+            .altitude(ping.altitude())
+            .speed(ping.speed())
+            .heading(ping.heading())
+            .isCurrent(true)
+            .timestamp(ping.timestamp())
+            .deviceId(ping.deviceId())
+            .provider(ping.provider())
+            .build();
+    }
+    
+    /**
+     * Current-location store entry, which only carries position, accuracy
+     * and reading time
+     */
+    public static LocationDTO toLocationDTO(IndexedLocation location) {
+        return LocationDTO.builder()
+            .userId(location.userId())
+            .latitude(location.latitude())
+            .longitude(location.longitude())
+            .accuracy(location.accuracy())
+            .isCurrent(true)
+            .timestamp(location.timestamp())
+            .build();
+    }
+}
@@ -1,28 +1,54 @@
 package com.socialize.geolocation.service;
 
-import com.socialize.geolocation.client.EventServiceClient;
-import com.socialize.geolocation.client.UserServiceClient;
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.exception.InvalidLocationException;
 import com.socialize.geolocation.exception.LocationNotFoundException;
+import com.socialize.geolocation.index.EventLocationIndex;
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.index.PreparedPolygonCache;
+import com.socialize.geolocation.ingest.DailyStatsAccumulator;
+import com.socialize.geolocation.ingest.LocationBatchWriter;
+import com.socialize.geolocation.ingest.LocationIngestPipeline;
+import com.socialize.geolocation.ingest.LocationPing;
+import com.socialize.geolocation.ingest.TrajectoryFilter;
+import com.socialize.geolocation.ingest.UpdateIntervalAdvisor;
+import com.socialize.geolocation.ingest.UpdateIntervalAdvisor.UpdateAdvice;
+import com.socialize.geolocation.kafka.LatestLocationPublisher;
 import com.socialize.geolocation.kafka.LocationKafkaProducer;
 import com.socialize.geolocation.model.dto.*;
 import com.socialize.geolocation.model.entity.LocationHistory;
 import com.socialize.geolocation.model.entity.UserLocation;
 import com.socialize.geolocation.repository.CustomLocationRepository;
+import com.socialize.geolocation.repository.LocationDailyStatsRepository;
 import com.socialize.geolocation.repository.LocationHistoryRepository;
+import com.socialize.geolocation.repository.LocationSummaryRepository;
 import com.socialize.geolocation.repository.UserLocationRepository;
+import com.socialize.geolocation.shard.ShardClient;
+import com.socialize.geolocation.shard.ShardRing;
+import com.socialize.geolocation.store.CurrentLocationStore;
+import com.socialize.geolocation.store.RecentHistoryWindow;
+import com.socialize.geolocation.store.RecentHistoryWindow.RecentHistoryPage;
+import com.socialize.geolocation.subscription.LocationChangeRelay;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Point;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,67 +60,89 @@ public class LocationService {
     private final LocationHistoryRepository locationHistoryRepository;
     private final CustomLocationRepository customLocationRepository;
     private final LocationKafkaProducer kafkaProducer;
-    private final UserServiceClient userServiceClient;
-    private final EventServiceClient eventServiceClient;
+    private final LatestLocationPublisher latestLocationPublisher;
     private final DistanceCalculator distanceCalculator;
+    private final CurrentLocationStore currentLocationStore;
+    private final BuddyEnrichmentService buddyEnrichmentService;
+    private final LocationIngestPipeline ingestPipeline;
+    private final LocationBatchWriter locationBatchWriter;
+    private final RecentHistoryWindow recentHistoryWindow;
+    private final LocationHistoryPartitionManager partitionManager;
+    private final LocationProperties locationProperties;
+    private final LocationDailyStatsRepository dailyStatsRepository;
+    private final DailyStatsAccumulator dailyStatsAccumulator;
+    private final TrajectoryFilter trajectoryFilter;
+    private final UpdateIntervalAdvisor updateIntervalAdvisor;
+    private final GeofenceService geofenceService;
+    private final ProximityAlertService proximityAlertService;
+    private final LocationChangeRelay locationChangeRelay;
+    private final PreparedPolygonCache preparedPolygonCache;
+    private final EventLocationIndex eventLocationIndex;
+    private final LocationSummaryRepository locationSummaryRepository;
+    private final ShardRing shardRing;
+    private final ShardClient shardClient;
     
     /**
-     * Update user location
+     * Update user location. The ping is acknowledged once queued; the
+     * ingest pipeline persists it on its next flush. In a sharded
+     * deployment it is handed to the instance owning its region.
      */
-    @Transactional
-    @CacheEvict(value = "userLocations", key = "#userId")
     public LocationDTO updateLocation(Long userId, LocationUpdateRequest request) {
-        log.info("Updating location for user: {}", userId);
-        
-        // Mark previous locations as not current
-        userLocationRepository.markPreviousLocationsAsNotCurrent(userId);
-        
-        // Create Point geometry
-        Point point = customLocationRepository.createPoint(
-            request.getLatitude(), 
-            request.getLongitude()
-        );
+        Optional<ServiceInstance> owner = shardRing.remoteOwnerOf(
+            request.getLatitude(), request.getLongitude());
+        if (owner.isPresent()) {
+            return shardClient.forwardUpdate(owner.get(), userId, request);
+        }
+        return updateOwnedLocation(userId, request);
+    }
+    
+    /**
+     * Apply a location update whose region this instance owns
+     */
+    public LocationDTO updateOwnedLocation(Long userId, LocationUpdateRequest request) {
+        log.debug("Accepting location update for user: {}", userId);
         
-        // Create new location
-        UserLocation location = UserLocation.builder()
-            .userId(userId)
-            .latitude(request.getLatitude())
-            .longitude(request.getLongitude())
-            .locationPoint(point)
-            .accuracy(request.getAccuracy())
-            .altitude(request.getAltitude())
-            .speed(request.getSpeed())
-            .heading(request.getHeading())
-            .isCurrent(true)
-            .deviceId(request.getDeviceId())
-            .provider(request.getProvider())
-            .build();
+        LocationPing ping = LocationPing.from(userId, request,
+            readingTime(request, LocalDateTime.now()));
         
-        UserLocation savedLocation = userLocationRepository.save(location);
+        // A poor fix would only degrade the position we already have
+        Optional<IndexedLocation> current = currentLocationStore.get(userId);
+        if (!trajectoryFilter.isAccurateEnough(ping, current.isPresent())) {
+            log.debug("Dropping location update for user {} with accuracy {}m",
+                userId, ping.accuracy());
+            return withUpdateAdvice(LocationMapper.toLocationDTO(current.get()), ping, current);
+        }
         
-        // Save to history
-        saveToHistory(savedLocation);
+        ingestPipeline.accept(ping);
         
-        // Send to Kafka
-        kafkaProducer.sendLocationUpdate(userId, savedLocation);
+        // Keep the current-location store in sync
+        currentLocationStore.upsert(ping.toIndexedLocation());
+        notifySubscribers(current, userId);
+        geofenceService.evaluate(ping);
         
-        log.info("Location updated successfully for user: {}", userId);
-        return convertToLocationDTO(savedLocation);
+        return withUpdateAdvice(LocationMapper.toLocationDTO(ping), ping, current);
     }
     
     /**
-     * Get current location for a user
+     * Get current location for a user. The current-location store is
+     * updated as soon as a ping is accepted, while MySQL only catches up
+     * on the next ingest flush, so the store is asked first; MySQL answers
+     * while the store is loading or does not hold the user.
      */
-    @Cacheable(value = "userLocations", key = "#userId")
     public LocationDTO getCurrentLocation(Long userId) {
         log.info("Fetching current location for user: {}", userId);
         
+        Optional<IndexedLocation> current = currentLocationStore.get(userId);
+        if (current.isPresent()) {
+            return LocationMapper.toLocationDTO(current.get());
+        }
+        
         UserLocation location = userLocationRepository
-            .findByUserIdAndIsCurrentTrue(userId)
+            .findByUserId(userId)
             .orElseThrow(() -> new LocationNotFoundException(
                 "No current location found for user: " + userId));
         
-        return convertToLocationDTO(location);
+        return LocationMapper.toLocationDTO(location);
     }
     
     /**
@@ -109,44 +157,78 @@ public class LocationService {
         log.info("Finding nearby buddies for user {} within {} meters", 
             currentUserId, radius);
         
-        List<Object[]> nearbyUsersData = customLocationRepository
-            .findNearbyUsersDetailed(latitude, longitude, radius, currentUserId);
-        
-        List<NearbyUserDTO> nearbyUsers = new ArrayList<>();
-        
-        for (Object[] data : nearbyUsersData) {
-            Long userId = ((Number) data[0]).longValue();
-            Double lat = (Double) data[1];
-            Double lon = (Double) data[2];
-            LocalDateTime timestamp = (LocalDateTime) data[3];
-            Double distance = (Double) data[4];
-            
-            // Fetch user details from User Service
-            try {
-                var userDetails = userServiceClient.getUserById(userId);
-                
-                // Check if user has active events
-                boolean hasActiveEvents = eventServiceClient
-                    .hasActiveEvents(userId);
-                
-                NearbyUserDTO nearbyUser = NearbyUserDTO.builder()
-                    .userId(userId)
-                    .username(userDetails.username())
-                    .profileImageUrl(userDetails.profileImageUrl())
-                    .latitude(lat)
-                    .longitude(lon)
-                    .distance(distance)
-                    .lastUpdated(timestamp)
-                    .hasActiveEvents(hasActiveEvents)
-                    .build();
-                
-                nearbyUsers.add(nearbyUser);
-            } catch (Exception e) {
-                log.error("Error fetching user details for userId: {}", userId, e);
+        List<NearbyCandidate> candidates = findNearbyCandidates(
+            currentUserId, latitude, longitude, radius);
+        
+        return buddyEnrichmentService.enrich(candidates);
+    }
+    
+    /**
+     * Find the k buddies nearest a point. Only those k are enriched, so
+     * the cost is bounded by k however crowded the area is.
+     */
+    public List<NearbyUserDTO> findNearestBuddies(
+            Long currentUserId,
+            Double latitude,
+            Double longitude,
+            Integer k,
+            Double maxRadius) {
+        
+        if (k < 1) {
+            throw new InvalidLocationException("k must be at least 1");
+        }
+        int limit = Math.min(k, locationProperties.getMaxNearbyResults());
+        double radius = Math.min(maxRadius, locationProperties.getMaxSearchRadius());
+        
+        log.info("Finding {} nearest buddies for user {} within {} meters",
+            limit, currentUserId, radius);
+        
+        return buddyEnrichmentService.enrich(currentLocationStore.findNearest(
+            latitude, longitude, limit, radius, currentUserId));
+    }
+    
+    /**
+     * Find users inside a polygon, nearest to its centroid first. Candidates
+     * come from the polygon's bounding box, so the cost follows the area
+     * searched rather than the number of users.
+     */
+    public List<NearbyUserDTO> findUsersInArea(Long currentUserId, AreaSearchRequest request) {
+        List<Coordinate> vertices = request.getVertices().stream()
+            .map(vertex -> new Coordinate(vertex.getLongitude(), vertex.getLatitude()))
+            .toList();
+        
+        PreparedGeometry area = preparedPolygonCache.get(vertices);
+        Envelope envelope = area.getGeometry().getEnvelopeInternal();
+        Point centroid = area.getGeometry().getCentroid();
+        
+        log.info("Finding users in area of {} vertices for user {}", vertices.size(), currentUserId);
+        
+        List<IndexedLocation> inside = new ArrayList<>();
+        if (currentLocationStore.isReady()) {
+            GeoBounds bounds = new GeoBounds(
+                envelope.getMinY(), envelope.getMinX(), envelope.getMaxY(), envelope.getMaxX());
+            for (IndexedLocation location : currentLocationStore.findInBounds(bounds, currentUserId)) {
+                if (area.contains(preparedPolygonCache.createPoint(location.latitude(), location.longitude()))) {
+                    inside.add(location);
+                }
             }
+        } else {
+            for (UserLocation location : customLocationRepository.findUsersInPolygon(vertices)) {
+                if (!location.getUserId().equals(currentUserId)) {
+                    inside.add(new IndexedLocation(location.getUserId(), location.getLatitude(),
+                        location.getLongitude(), location.getAccuracy(), location.getTimestamp()));
+                }
+            }
+        }
+        
+        List<NearbyCandidate> candidates = new ArrayList<>(inside.size());
+        for (IndexedLocation location : inside) {
+            candidates.add(new NearbyCandidate(location, distanceCalculator.distance(
+                centroid.getY(), centroid.getX(), location.latitude(), location.longitude())));
         }
+        candidates.sort(Comparator.comparingDouble(NearbyCandidate::distance));
         
-        return nearbyUsers;
+        return buddyEnrichmentService.enrich(candidates);
     }
     
     /**
@@ -159,30 +241,7 @@ public class LocationService {
         
         log.info("Finding nearby events within {} meters", radius);
         
-        try {
-            // Call Event Service to get nearby events
-            List<NearbyEventDTO> nearbyEvents = eventServiceClient
-                .getNearbyEvents(latitude, longitude, radius);
-            
-            // Calculate distances
-            for (NearbyEventDTO event : nearbyEvents) {
-                Double distance = distanceCalculator.calculateDistance(
-                    latitude, longitude,
-                    event.getLatitude(), event.getLongitude()
-                );
-                event.setDistance(distance);
-            }
-            
-            // Sort by distance
-            nearbyEvents.sort((e1, e2) -> 
-                Double.compare(e1.getDistance(), e2.getDistance()));
-            
-            return nearbyEvents;
-            
-        } catch (Exception e) {
-            log.error("Error fetching nearby events", e);
-            return List.of();
-        }
+        return eventLocationIndex.findWithinRadius(latitude, longitude, radius);
     }
     
     /**
@@ -193,8 +252,26 @@ public class LocationService {
         
         log.info("Fetching location history for user: {}", userId);
         
+        // Bounding by the retention window lets MySQL prune partitions
+        LocalDateTime since = LocalDateTime.now()
+            .minusDays(locationProperties.getHistoryRetentionDays());
+        
+        // Recent pages come from the off-heap window; only the rows older
+        // than it still need counting in MySQL
+        Optional<RecentHistoryPage> recent = recentHistoryWindow.findPage(userId, since, page, size);
+        if (recent.isPresent()) {
+            RecentHistoryPage hit = recent.get();
+            long total = hit.total();
+            if (hit.coveredSince() != null) {
+                total += locationHistoryRepository.countByUserIdAndTimestampAfterAndTimestampBefore(
+                    userId, since, hit.coveredSince());
+            }
+            return new PageImpl<>(hit.content(), PageRequest.of(page, size), total);
+        }
+        
         Page<LocationHistory> historyPage = locationHistoryRepository
-            .findByUserIdOrderByTimestampDesc(userId, PageRequest.of(page, size));
+            .findByUserIdAndTimestampAfterOrderByTimestampDesc(
+                userId, since, PageRequest.of(page, size));
         
         return historyPage.map(this::convertToHistoryDTO);
     }
@@ -220,100 +297,173 @@ public class LocationService {
     }
     
     /**
-     * Batch update locations
+     * Batch update locations. Points are written in one pass: the ones
+     * that survive filtering to history as a single batch, and the newest
+     * accurate one as the current location.
      */
-    @Transactional
     public void batchUpdateLocations(Long userId, List<LocationUpdateRequest> locations) {
+        // Uploads are in reading order; the last point decides the owner
+        if (!locations.isEmpty()) {
+            LocationUpdateRequest last = locations.get(locations.size() - 1);
+            Optional<ServiceInstance> owner = shardRing.remoteOwnerOf(last.getLatitude(), last.getLongitude());
+            if (owner.isPresent()) {
+                shardClient.forwardBatch(owner.get(), userId, locations);
+                return;
+            }
+        }
+        batchUpdateOwnedLocations(userId, locations);
+    }
+    
+    /**
+     * Apply a batch upload whose newest region this instance owns
+     */
+    public void batchUpdateOwnedLocations(Long userId, List<LocationUpdateRequest> locations) {
         log.info("Batch updating {} locations for user: {}", locations.size(), userId);
         
-        for (LocationUpdateRequest request : locations) {
-            updateLocation(userId, request);
+        LocalDateTime receivedAt = LocalDateTime.now();
+        boolean hasCurrentPosition = currentLocationStore.get(userId).isPresent();
+        List<LocationPing> pings = locations.stream()
+            .map(request -> LocationPing.from(userId, request, readingTime(request, receivedAt)))
+            .filter(ping -> trajectoryFilter.isAccurateEnough(ping, hasCurrentPosition))
+            .sorted(Comparator.comparing(LocationPing::timestamp))
+            .toList();
+        
+        if (pings.isEmpty()) {
+            log.debug("No accurate locations in batch for user: {}", userId);
+            return;
         }
+        LocationPing newest = pings.get(pings.size() - 1);
+        List<LocationPing> history = trajectoryFilter.thin(pings);
+        
+        long[] historyIds = locationBatchWriter.write(List.of(newest), pings, history);
+        recentHistoryWindow.append(history, historyIds);
+        Optional<IndexedLocation> previous = currentLocationStore.get(userId);
+        currentLocationStore.upsert(newest.toIndexedLocation());
+        notifySubscribers(previous, userId);
+        geofenceService.evaluate(newest);
         
         // Send batch update event to Kafka
-        kafkaProducer.sendBatchLocationUpdate(userId, locations.size());
+        latestLocationPublisher.publish(newest);
+        if (!history.isEmpty()) {
+            kafkaProducer.sendBatchLocationUpdate(userId, history);
+        }
     }
     
     /**
-     * Get user location summary
+     * Get user location summary from its materialized copy, building it
+     * on a miss. Events change without the user moving, so the nearby
+     * event count is always taken from the event index.
      */
     public UserLocationSummary getUserLocationSummary(Long userId) {
         log.info("Fetching location summary for user: {}", userId);
         
-        LocationDTO currentLocation = getCurrentLocation(userId);
+        UserLocationSummary summary = locationSummaryRepository.findByUserId(userId)
+            .orElseGet(() -> refreshSummary(getCurrentLocation(userId)));
+        summary.setNearbyEventsCount(countNearbyEvents(summary.getCurrentLocation()));
+        return summary;
+    }
+    
+    /**
+     * Rebuild and store a user's summary around their current location.
+     * Called by the location stream consumer on every update.
+     */
+    public UserLocationSummary refreshSummary(LocationDTO currentLocation) {
+        Long userId = currentLocation.getUserId();
+        double radius = locationProperties.getSummaryRadius();
         
-        // Count nearby buddies
-        Long nearbyBuddiesCount = userLocationRepository.countNearbyUsers(
-            String.format("POINT(%f %f)", 
-                currentLocation.getLongitude(), 
-                currentLocation.getLatitude()),
-            10000.0, // 10km
-            userId
+        Long nearbyBuddiesCount = countNearbyUsers(
+            userId,
+            currentLocation.getLatitude(),
+            currentLocation.getLongitude(),
+            radius
         );
         
-        // Get total distance traveled (last 7 days)
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        Double totalDistance = locationHistoryRepository
-            .calculateTotalDistanceTraveled(userId, sevenDaysAgo, LocalDateTime.now());
+        // Get total distance traveled (last 7 days) from the daily rollups
+        Double totalDistance = dailyStatsRepository
+            .sumDistanceSince(userId, LocalDate.now().minusDays(6)) / 1000.0;
         
-        return UserLocationSummary.builder()
+        UserLocationSummary summary = UserLocationSummary.builder()
             .userId(userId)
             .currentLocation(currentLocation)
             .lastUpdated(currentLocation.getTimestamp())
             .nearbyBuddiesCount(nearbyBuddiesCount.intValue())
-            .nearbyEventsCount(0) // TODO: Implement
-            .totalDistanceTraveled(totalDistance != null ? totalDistance : 0.0)
+            .nearbyEventsCount(countNearbyEvents(currentLocation))
+            .totalDistanceTraveled(totalDistance)
             .build();
+        
+        locationSummaryRepository.save(summary);
+        return summary;
+    }
+    
+    private int countNearbyEvents(LocationDTO location) {
+        return (int) eventLocationIndex.countWithinRadius(
+            location.getLatitude(), location.getLongitude(), locationProperties.getSummaryRadius());
     }
     
     /**
-     * Delete old locations (cleanup)
+     * Enforce history retention by dropping expired daily partitions and
+     * making sure upcoming ones exist
      */
-    @Transactional
     public void cleanupOldLocations(int daysToKeep) {
         log.info("Cleaning up locations older than {} days", daysToKeep);
         
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysToKeep);
-        userLocationRepository.deleteOldLocations(cutoffDate);
-        locationHistoryRepository.deleteOldHistory(cutoffDate);
+        partitionManager.dropExpiredPartitions(daysToKeep);
+        partitionManager.createUpcomingPartitions();
+        dailyStatsAccumulator.evictBefore(LocalDate.now().minusDays(1));
+        trajectoryFilter.evictBefore(LocalDate.now().minusDays(1));
         
         log.info("Old locations cleaned up successfully");
     }
     
     /**
-     * Save location to history
+     * Attach the client's next-update hints to an update response
      */
-    private void saveToHistory(UserLocation location) {
-        LocationHistory history = LocationHistory.builder()
-            .userId(location.getUserId())
-            .latitude(location.getLatitude())
-            .longitude(location.getLongitude())
-            .locationPoint(location.getLocationPoint())
-            .accuracy(location.getAccuracy())
-            .timestamp(location.getTimestamp())
-            .build();
+    private LocationDTO withUpdateAdvice(
+            LocationDTO location, LocationPing ping, Optional<IndexedLocation> previous) {
+        UpdateAdvice advice = updateIntervalAdvisor.advise(ping, previous);
+        location.setNextUpdateIntervalSeconds(advice.nextUpdateIntervalSeconds());
+        location.setMinDisplacementMeters(advice.minDisplacementMeters());
+        return location;
+    }
+    
+    /**
+     * Push the user's indexed position to nearby subscriptions and
+     * proximity alerts if the update actually moved it
+     */
+    private void notifySubscribers(Optional<IndexedLocation> previous, Long userId) {
+        currentLocationStore.get(userId)
+            .filter(current -> !previous.equals(Optional.of(current)))
+            .ifPresent(current -> {
+                locationChangeRelay.publish(previous, current);
+                proximityAlertService.evaluate(current);
+            });
+    }
+    
+    /**
+     * Nearby candidates from the current-location store
+     */
+    private List<NearbyCandidate> findNearbyCandidates(
+            Long currentUserId, Double latitude, Double longitude, Double radius) {
         
-        locationHistoryRepository.save(history);
+        return currentLocationStore.findWithinRadius(latitude, longitude, radius, currentUserId);
     }
     
     /**
-     * Convert entity to DTO
+     * Count users near a point from the current-location store
      */
-    private LocationDTO convertToLocationDTO(UserLocation location) {
-        return LocationDTO.builder()
-            .id(location.getId())
-            .userId(location.getUserId())
-            .latitude(location.getLatitude())
-            .longitude(location.getLongitude())
-            .accuracy(location.getAccuracy())
-            .altitude(location.getAltitude())
-            .speed(location.getSpeed())
-            .heading(location.getHeading())
-            .isCurrent(location.getIsCurrent())
-            .timestamp(location.getTimestamp())
-            .deviceId(location.getDeviceId())
-            .provider(location.getProvider())
-            .build();
+    private Long countNearbyUsers(
+            Long userId, Double latitude, Double longitude, Double radius) {
+        
+        return currentLocationStore.countWithinRadius(latitude, longitude, radius, userId);
+    }
+    
+    /**
+     * Client-supplied reading time, clamped so a skewed device clock
+     * cannot place a reading in the future
+     */
+    private LocalDateTime readingTime(LocationUpdateRequest request, LocalDateTime receivedAt) {
+        LocalDateTime timestamp = request.getTimestamp();
+        return timestamp == null || timestamp.isAfter(receivedAt) ? receivedAt : timestamp;
     }
     
     private LocationHistoryDTO convertToHistoryDTO(LocationHistory history) {
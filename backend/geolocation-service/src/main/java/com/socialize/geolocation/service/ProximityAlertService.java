@@ -0,0 +1,258 @@
+package com.socialize.geolocation.service;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.exception.InvalidLocationException;
+import com.socialize.geolocation.exception.ProximityAlertNotFoundException;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.kafka.LocationKafkaProducer;
+import com.socialize.geolocation.model.dto.ProximityAlertDTO;
+import com.socialize.geolocation.model.dto.ProximityAlertRequest;
+import com.socialize.geolocation.model.entity.ProximityAlert;
+import com.socialize.geolocation.repository.ProximityAlertRepository;
+import com.socialize.geolocation.store.CurrentLocationStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alerts users when buddies they opted in to come near.
+ *
+ * An opt-in only takes effect once the buddy has opted in about the user
+ * as well, so nobody can be followed without their consent. Active pairs
+ * are held in memory keyed by both users, so a moving user's pairs are
+ * found without a query, and each pair is checked against the buddy's
+ * current position looked up directly in the store. A pair becomes near
+ * inside its threshold and apart only beyond
+ * {@code location.proximity-exit-factor} times it, and publishes at most
+ * one buddy-nearby event per {@code location.proximity-cooldown-minutes},
+ * so users walking along the edge do not get a stream of alerts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProximityAlertService {
+    
+    private final ProximityAlertRepository proximityAlertRepository;
+    private final CurrentLocationStore currentLocationStore;
+    private final DistanceCalculator distanceCalculator;
+    private final LocationKafkaProducer kafkaProducer;
+    private final LocationProperties locationProperties;
+    
+    private volatile Map<Long, List<Pair>> pairsByUser = Map.of();
+    private final Map<PairKey, PairState> stateByPair = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reloadPairs();
+    }
+    
+    /**
+     * Rebuild the in-memory opt-ins from MySQL to pick up changes made
+     * through other instances
+     */
+    @Scheduled(fixedDelayString = "${location.proximity-reload-interval-ms:60000}",
+        initialDelayString = "${location.proximity-reload-interval-ms:60000}")
+    public void reloadPairs() {
+        try {
+            List<Pair> optIns = proximityAlertRepository.findAll().stream().map(Pair::from).toList();
+            Set<PairKey> keys = new HashSet<>();
+            optIns.forEach(pair -> keys.add(pair.key()));
+            
+            Map<Long, List<Pair>> reloaded = new HashMap<>();
+            for (Pair pair : optIns) {
+                if (keys.contains(pair.reverseKey())) {
+                    addPair(reloaded, pair);
+                }
+            }
+            pairsByUser = reloaded;
+            log.debug("Proximity alerts reloaded for {} users", reloaded.size());
+        } catch (Exception e) {
+            log.error("Failed to reload proximity alerts: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Opt in to alerts about a buddy, or change the threshold of an
+     * existing opt-in. Nothing is published until the buddy opts in about
+     * this user too.
+     */
+    public ProximityAlertDTO createAlert(Long userId, ProximityAlertRequest request) {
+        if (userId.equals(request.getBuddyId())) {
+            throw new InvalidLocationException("Cannot create a proximity alert for yourself");
+        }
+        log.info("Creating proximity alert for user {} about buddy {}", userId, request.getBuddyId());
+        
+        ProximityAlert alert = proximityAlertRepository
+            .findByUserIdAndBuddyId(userId, request.getBuddyId())
+            .orElseGet(() -> ProximityAlert.builder()
+                .userId(userId)
+                .buddyId(request.getBuddyId())
+                .createdAt(LocalDateTime.now())
+                .build());
+        alert.setThresholdMeters(request.getThresholdMeters());
+        alert = proximityAlertRepository.save(alert);
+        
+        Optional<ProximityAlert> reverse = proximityAlertRepository
+            .findByUserIdAndBuddyId(request.getBuddyId(), userId);
+        if (reverse.isPresent()) {
+            updatePairs(Pair.from(alert), true);
+            updatePairs(Pair.from(reverse.get()), true);
+        }
+        return convertToProximityAlertDTO(alert, reverse.isPresent());
+    }
+    
+    /**
+     * Get the buddies a user is alerted about
+     */
+    public List<ProximityAlertDTO> getAlerts(Long userId) {
+        return proximityAlertRepository.findByUserId(userId).stream()
+            .map(alert -> convertToProximityAlertDTO(alert,
+                proximityAlertRepository.existsByUserIdAndBuddyId(alert.getBuddyId(), userId)))
+            .toList();
+    }
+    
+    /**
+     * Opt out of alerts about a buddy
+     */
+    public void deleteAlert(Long userId, Long buddyId) {
+        ProximityAlert alert = proximityAlertRepository.findByUserIdAndBuddyId(userId, buddyId)
+            .orElseThrow(() -> new ProximityAlertNotFoundException(
+                "No proximity alert for buddy: " + buddyId));
+        
+        proximityAlertRepository.delete(alert);
+        updatePairs(Pair.from(alert), false);
+        // Withdrawing consent also stops the buddy's alerts about this user
+        proximityAlertRepository.findByUserIdAndBuddyId(buddyId, userId)
+            .ifPresent(reverse -> updatePairs(Pair.from(reverse), false));
+    }
+    
+    /**
+     * Check every pair involving a user who just moved and publish
+     * buddy-nearby events for pairs that came within their threshold
+     */
+    public void evaluate(IndexedLocation current) {
+        List<Pair> pairs = pairsByUser.getOrDefault(current.userId(), List.of());
+        if (pairs.isEmpty()) {
+            return;
+        }
+        
+        double exitFactor = locationProperties.getProximityExitFactor();
+        
+        LocalDateTime now = LocalDateTime.now();
+        Duration cooldown = Duration.ofMinutes(locationProperties.getProximityCooldownMinutes());
+        
+        for (Pair pair : pairs) {
+            Long otherUserId = pair.userId().equals(current.userId()) ? pair.buddyId() : pair.userId();
+            double distance = currentLocationStore.get(otherUserId)
+                .map(other -> distanceCalculator.distance(current.latitude(), current.longitude(),
+                    other.latitude(), other.longitude()))
+                .orElse(Double.POSITIVE_INFINITY);
+            boolean[] alert = new boolean[1];
+            
+            stateByPair.compute(pair.key(), (key, state) -> {
+                boolean wasNear = state != null && state.near();
+                LocalDateTime lastAlertAt = state != null ? state.lastAlertAt() : null;
+                boolean near = wasNear
+                    ? distance <= pair.thresholdMeters() * exitFactor
+                    : distance <= pair.thresholdMeters();
+                
+                if (near && !wasNear
+                        && (lastAlertAt == null || !lastAlertAt.plus(cooldown).isAfter(now))) {
+                    alert[0] = true;
+                    lastAlertAt = now;
+                }
+                
+                // Apart pairs are only remembered while their cooldown runs
+                if (!near && (lastAlertAt == null || !lastAlertAt.plus(cooldown).isAfter(now))) {
+                    return null;
+                }
+                return new PairState(near, lastAlertAt);
+            });
+            
+            if (alert[0]) {
+                kafkaProducer.sendBuddyNearby(pair.userId(), pair.buddyId(), distance, current.timestamp());
+            }
+        }
+    }
+    
+    private synchronized void updatePairs(Pair pair, boolean add) {
+        Map<Long, List<Pair>> updated = new HashMap<>(pairsByUser);
+        removePair(updated, pair.userId(), pair);
+        removePair(updated, pair.buddyId(), pair);
+        if (add) {
+            addPair(updated, pair);
+        } else {
+            stateByPair.remove(pair.key());
+        }
+        pairsByUser = updated;
+    }
+    
+    private static void addPair(Map<Long, List<Pair>> pairs, Pair pair) {
+        pairs.merge(pair.userId(), List.of(pair), ProximityAlertService::concat);
+        pairs.merge(pair.buddyId(), List.of(pair), ProximityAlertService::concat);
+    }
+    
+    private static void removePair(Map<Long, List<Pair>> pairs, Long userId, Pair pair) {
+        pairs.computeIfPresent(userId, (key, existing) -> {
+            List<Pair> remaining = existing.stream().filter(other -> !other.sameUsers(pair)).toList();
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+    
+    private static List<Pair> concat(List<Pair> first, List<Pair> second) {
+        List<Pair> merged = new ArrayList<>(first);
+        merged.addAll(second);
+        return merged;
+    }
+    
+    private ProximityAlertDTO convertToProximityAlertDTO(ProximityAlert alert, boolean mutual) {
+        return ProximityAlertDTO.builder()
+            .id(alert.getId())
+            .userId(alert.getUserId())
+            .buddyId(alert.getBuddyId())
+            .thresholdMeters(alert.getThresholdMeters())
+            .mutual(mutual)
+            .createdAt(alert.getCreatedAt())
+            .build();
+    }
+    
+    /**
+     * An opt-in: userId is alerted when buddyId comes within the threshold
+     */
+    private record Pair(Long userId, Long buddyId, double thresholdMeters) {
+        
+        static Pair from(ProximityAlert alert) {
+            return new Pair(alert.getUserId(), alert.getBuddyId(), alert.getThresholdMeters());
+        }
+        
+        PairKey key() {
+            return new PairKey(userId, buddyId);
+        }
+        
+        PairKey reverseKey() {
+            return new PairKey(buddyId, userId);
+        }
+        
+        boolean sameUsers(Pair other) {
+            return key().equals(other.key());
+        }
+    }
+    
+    private record PairKey(Long userId, Long buddyId) {}
+    
+    private record PairState(boolean near, LocalDateTime lastAlertAt) {}
+}
@@ -0,0 +1,92 @@
+package com.socialize.geolocation.shard;
+
+import com.socialize.geolocation.index.GeoBounds;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Standard base-32 geohash, used to name shard regions
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90.0, maxLat = 90.0;
+        double minLon = -180.0, maxLon = 180.0;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Cell height in degrees at the given precision
+     */
+    public static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    /**
+     * Cell width in degrees at the given precision
+     */
+    public static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+
+    /**
+     * Every cell at the given precision that overlaps the bounds
+     */
+    public static Set<String> covering(GeoBounds bounds, int precision) {
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        Set<String> cells = new LinkedHashSet<>();
+
+        for (double lat = bounds.minLatitude(); ; lat = Math.min(lat + height, bounds.maxLatitude())) {
+            for (double lon = bounds.minLongitude(); ; lon = Math.min(lon + width, bounds.maxLongitude())) {
+                cells.add(encode(lat, lon, precision));
+                if (lon >= bounds.maxLongitude()) {
+                    break;
+                }
+            }
+            if (lat >= bounds.maxLatitude()) {
+                break;
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,164 @@
+package com.socialize.geolocation.shard;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.model.dto.LocationDTO;
+import com.socialize.geolocation.model.dto.LocationUpdateRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Calls the internal shard endpoints of other geolocation-service
+ * instances (see {@link com.socialize.geolocation.controller.ShardController}).
+ *
+ * Every call carries {@code location.shard-secret} in the
+ * {@value #SHARD_TOKEN_HEADER} header, which the endpoints require.
+ * Scatter calls run concurrently under {@code location.shard-timeout-ms};
+ * a shard that fails or misses the deadline contributes nothing rather
+ * than failing the whole query.
+ */
+@Component
+@Slf4j
+public class ShardClient {
+
+    public static final String SHARD_TOKEN_HEADER = "X-Shard-Token";
+
+    private static final ParameterizedTypeReference<List<NearbyCandidate>> CANDIDATES =
+        new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<IndexedLocation>> LOCATIONS =
+        new ParameterizedTypeReference<>() {};
+
+    private final RestClient restClient;
+    private final Executor shardExecutor;
+    private final LocationProperties locationProperties;
+
+    public ShardClient(
+            RestClient.Builder restClientBuilder,
+            @Qualifier("shardExecutor") Executor shardExecutor,
+            LocationProperties locationProperties) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(locationProperties.getShardTimeoutMs().intValue());
+        requestFactory.setReadTimeout(locationProperties.getShardTimeoutMs().intValue());
+
+        RestClient.Builder builder = restClientBuilder.requestFactory(requestFactory);
+        if (StringUtils.hasText(locationProperties.getShardSecret())) {
+            builder.defaultHeader(SHARD_TOKEN_HEADER, locationProperties.getShardSecret());
+        }
+        this.restClient = builder.build();
+        this.shardExecutor = shardExecutor;
+        this.locationProperties = locationProperties;
+    }
+
+    public LocationDTO forwardUpdate(ServiceInstance owner, Long userId, LocationUpdateRequest request) {
+        return restClient.post()
+            .uri(baseUri(owner) + "/internal/shards/users/{userId}/location", userId)
+            .body(request)
+            .retrieve()
+            .body(LocationDTO.class);
+    }
+
+    public void forwardBatch(ServiceInstance owner, Long userId, List<LocationUpdateRequest> requests) {
+        restClient.post()
+            .uri(baseUri(owner) + "/internal/shards/users/{userId}/locations", userId)
+            .body(requests)
+            .retrieve()
+            .toBodilessEntity();
+    }
+
+    /**
+     * Tell a former owner to drop a user who has moved to another region,
+     * unless it has a newer reading for them
+     */
+    public void handOff(ServiceInstance formerOwner, Long userId, LocalDateTime asOf) {
+        CompletableFuture.runAsync(() -> restClient.delete()
+            .uri(baseUri(formerOwner) + "/internal/shards/users/{userId}/location?asOf={asOf}", userId, asOf)
+            .retrieve()
+            .toBodilessEntity(), shardExecutor)
+            .exceptionally(e -> {
+                log.warn("Failed to hand off user {} from {}: {}",
+                    userId, formerOwner.getInstanceId(), e.getMessage());
+                return null;
+            });
+    }
+
+    public List<NearbyCandidate> findWithinRadius(
+            List<ServiceInstance> shards, double latitude, double longitude, double radius, Long excludeUserId) {
+        return gather(shards, shard -> restClient.get()
+            .uri(baseUri(shard) + "/internal/shards/nearby?lat={lat}&lng={lng}&radius={radius}&exclude={exclude}",
+                latitude, longitude, radius, excludeUserId)
+            .retrieve()
+            .body(CANDIDATES));
+    }
+
+    public List<NearbyCandidate> findNearest(
+            List<ServiceInstance> shards, double latitude, double longitude, int k, double maxRadius,
+            Long excludeUserId) {
+        return gather(shards, shard -> restClient.get()
+            .uri(baseUri(shard) + "/internal/shards/nearest?lat={lat}&lng={lng}&k={k}&radius={radius}&exclude={exclude}",
+                latitude, longitude, k, maxRadius, excludeUserId)
+            .retrieve()
+            .body(CANDIDATES));
+    }
+
+    public long countWithinRadius(
+            List<ServiceInstance> shards, double latitude, double longitude, double radius, Long excludeUserId) {
+        return gather(shards, shard -> List.of(restClient.get()
+            .uri(baseUri(shard) + "/internal/shards/count?lat={lat}&lng={lng}&radius={radius}&exclude={exclude}",
+                latitude, longitude, radius, excludeUserId)
+            .retrieve()
+            .body(Long.class)))
+            .stream()
+            .mapToLong(Long::longValue)
+            .sum();
+    }
+
+    public List<IndexedLocation> findInBounds(List<ServiceInstance> shards, GeoBounds bounds, Long excludeUserId) {
+        return gather(shards, shard -> restClient.get()
+            .uri(baseUri(shard) + "/internal/shards/bounds?minLat={minLat}&minLng={minLng}"
+                    + "&maxLat={maxLat}&maxLng={maxLng}&exclude={exclude}",
+                bounds.minLatitude(), bounds.minLongitude(), bounds.maxLatitude(), bounds.maxLongitude(),
+                excludeUserId)
+            .retrieve()
+            .body(LOCATIONS));
+    }
+
+    private <T> List<T> gather(List<ServiceInstance> shards, Function<ServiceInstance, List<T>> call) {
+        List<CompletableFuture<List<T>>> futures = shards.stream()
+            .map(shard -> CompletableFuture.supplyAsync(() -> call.apply(shard), shardExecutor)
+                .completeOnTimeout(List.of(), locationProperties.getShardTimeoutMs(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Shard {} did not answer: {}", shard.getInstanceId(), e.getMessage());
+                    return List.of();
+                }))
+            .toList();
+
+        List<T> gathered = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            List<T> part = future.join();
+            if (part != null) {
+                gathered.addAll(part);
+            }
+        }
+        return gathered;
+    }
+
+    private static String baseUri(ServiceInstance shard) {
+        return shard.getUri().toString();
+    }
+}
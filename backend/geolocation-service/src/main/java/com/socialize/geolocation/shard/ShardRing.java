@@ -0,0 +1,179 @@
+package com.socialize.geolocation.shard;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Assigns geohash regions to geolocation-service instances.
+ *
+ * Each user belongs to the region named by the first
+ * {@code location.shard-precision} characters of their position's
+ * geohash, and each region to the instance that follows its hash on a
+ * consistent-hash ring of the instances registered in Eureka. Instances
+ * get {@code location.shard-virtual-nodes} points on the ring each, so
+ * adding or losing one only moves its share of the regions. Inert unless
+ * {@code location.sharding-enabled} is set; every region is then local.
+ */
+@Component
+@Slf4j
+public class ShardRing {
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final LocationProperties locationProperties;
+    private final String serviceId;
+
+    private volatile NavigableMap<Long, ServiceInstance> ring = new TreeMap<>();
+
+    public ShardRing(
+            DiscoveryClient discoveryClient,
+            ObjectProvider<Registration> registration,
+            LocationProperties locationProperties,
+            @Value("${spring.application.name}") String serviceId) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.locationProperties = locationProperties;
+        this.serviceId = serviceId;
+    }
+
+    public boolean isEnabled() {
+        return locationProperties.getShardingEnabled();
+    }
+
+    /**
+     * Runs before the store loaders, which only take this instance's regions
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStartup() {
+        refresh();
+    }
+
+    /**
+     * Rebuild the ring from the instances currently registered
+     */
+    @Scheduled(fixedDelayString = "${location.shard-ring-refresh-ms:30000}",
+        initialDelayString = "${location.shard-ring-refresh-ms:30000}")
+    public void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            List<ServiceInstance> instances = new ArrayList<>(discoveryClient.getInstances(serviceId));
+            // The local registry copy may not list this instance for a while
+            Registration self = registration.getIfAvailable();
+            if (self != null && self.getInstanceId() != null
+                    && instances.stream().noneMatch(instance -> self.getInstanceId().equals(instance.getInstanceId()))) {
+                instances.add(self);
+            }
+            NavigableMap<Long, ServiceInstance> rebuilt = new TreeMap<>();
+            for (ServiceInstance instance : instances) {
+                for (int node = 0; node < locationProperties.getShardVirtualNodes(); node++) {
+                    rebuilt.put(hash(instance.getInstanceId() + "#" + node), instance);
+                }
+            }
+            if (rebuilt.size() != ring.size()) {
+                log.info("Shard ring rebuilt over {} instances", instances.size());
+            }
+            ring = rebuilt;
+        } catch (Exception e) {
+            log.error("Failed to refresh shard ring: {}", e.getMessage(), e);
+        }
+    }
+
+    public String regionOf(double latitude, double longitude) {
+        return Geohash.encode(latitude, longitude, locationProperties.getShardPrecision());
+    }
+
+    /**
+     * The instance owning a point, or empty when it is this one
+     */
+    public Optional<ServiceInstance> remoteOwnerOf(double latitude, double longitude) {
+        return remoteOwnerOfRegion(regionOf(latitude, longitude));
+    }
+
+    /**
+     * Remote instances owning any region that overlaps the bounds, and
+     * whether this instance owns one too
+     */
+    public Owners ownersOf(GeoBounds bounds) {
+        return owners(Geohash.covering(bounds, locationProperties.getShardPrecision()));
+    }
+
+    /**
+     * Whether this instance owns the region containing a point
+     */
+    public boolean owns(double latitude, double longitude) {
+        return remoteOwnerOf(latitude, longitude).isEmpty();
+    }
+
+    private Owners owners(Set<String> regions) {
+        Map<String, ServiceInstance> remote = new LinkedHashMap<>();
+        boolean local = false;
+        for (String region : regions) {
+            Optional<ServiceInstance> owner = remoteOwnerOfRegion(region);
+            if (owner.isPresent()) {
+                remote.putIfAbsent(owner.get().getInstanceId(), owner.get());
+            } else {
+                local = true;
+            }
+        }
+        return new Owners(local, List.copyOf(remote.values()));
+    }
+
+    private Optional<ServiceInstance> remoteOwnerOfRegion(String region) {
+        NavigableMap<Long, ServiceInstance> current = ring;
+        if (!isEnabled() || current.isEmpty()) {
+            return Optional.empty();
+        }
+        Map.Entry<Long, ServiceInstance> entry = current.ceilingEntry(hash(region));
+        ServiceInstance owner = entry != null ? entry.getValue() : current.firstEntry().getValue();
+        return isSelf(owner) ? Optional.empty() : Optional.of(owner);
+    }
+
+    private boolean isSelf(ServiceInstance instance) {
+        Registration self = registration.getIfAvailable();
+        return self == null || self.getInstanceId() == null
+            || self.getInstanceId().equals(instance.getInstanceId());
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Instances to ask about an area: whether this one holds part of it,
+     * and the remote ones that hold the rest
+     */
+    public record Owners(boolean local, List<ServiceInstance> remote) {}
+}
@@ -0,0 +1,209 @@
+package com.socialize.geolocation.shard;
+
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.repository.UserLocationRepository;
+import com.socialize.geolocation.shard.ShardRing.Owners;
+import com.socialize.geolocation.store.CurrentLocationStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Current-location store of a sharded deployment.
+ *
+ * This instance's own store is only loaded with users in the regions it
+ * owns, and only answers for users whose region it owns under the current
+ * ring, so a user left behind by a ring change or a MySQL fallback read is
+ * never served twice. Searches ask it plus the owners of the other regions
+ * the search area overlaps, and merged results keep each user's newest
+ * position. When a user first appears here, the owner of the region of
+ * their last stored position is told to drop them, which hands ownership
+ * over as the user crosses a boundary.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "location.sharding-enabled", havingValue = "true")
+public class ShardedCurrentLocationStore implements CurrentLocationStore {
+
+    private final CurrentLocationStore localStore;
+    private final ShardRing shardRing;
+    private final ShardClient shardClient;
+    private final UserLocationRepository userLocationRepository;
+
+    public ShardedCurrentLocationStore(
+            @Qualifier(CurrentLocationStore.SHARD_LOCAL) CurrentLocationStore localStore,
+            ShardRing shardRing,
+            ShardClient shardClient,
+            UserLocationRepository userLocationRepository) {
+        this.localStore = localStore;
+        this.shardRing = shardRing;
+        this.shardClient = shardClient;
+        this.userLocationRepository = userLocationRepository;
+    }
+
+    @Override
+    public void upsert(IndexedLocation location) {
+        boolean arriving = localStore.get(location.userId()).isEmpty();
+        localStore.upsert(location);
+
+        if (arriving) {
+            // Pings are persisted after this, so MySQL still has the region being left
+            userLocationRepository.findByUserId(location.userId())
+                .flatMap(previous -> shardRing.remoteOwnerOf(previous.getLatitude(), previous.getLongitude()))
+                .ifPresent(formerOwner ->
+                    shardClient.handOff(formerOwner, location.userId(), location.timestamp()));
+        }
+    }
+
+    @Override
+    public void remove(Long userId) {
+        localStore.remove(userId);
+    }
+
+    @Override
+    public Optional<IndexedLocation> get(Long userId) {
+        return localStore.get(userId);
+    }
+
+    @Override
+    public List<NearbyCandidate> findWithinRadius(
+            double latitude, double longitude, double radius, Long excludeUserId) {
+
+        Owners owners = shardRing.ownersOf(GeoBounds.around(latitude, longitude, radius));
+        List<NearbyCandidate> candidates = new ArrayList<>(
+            shardClient.findWithinRadius(owners.remote(), latitude, longitude, radius, excludeUserId));
+        if (owners.local()) {
+            candidates.addAll(findOwnedWithinRadius(latitude, longitude, radius, excludeUserId));
+        }
+        return newestCandidates(candidates);
+    }
+
+    @Override
+    public List<NearbyCandidate> findNearest(
+            double latitude, double longitude, int k, double maxRadius, Long excludeUserId) {
+
+        // Every shard returns its own k nearest; the overall k are among them
+        Owners owners = shardRing.ownersOf(GeoBounds.around(latitude, longitude, maxRadius));
+        List<NearbyCandidate> candidates = new ArrayList<>(
+            shardClient.findNearest(owners.remote(), latitude, longitude, k, maxRadius, excludeUserId));
+        if (owners.local()) {
+            candidates.addAll(findOwnedNearest(latitude, longitude, k, maxRadius, excludeUserId));
+        }
+        candidates = newestCandidates(candidates);
+        return candidates.size() > k ? candidates.subList(0, k) : candidates;
+    }
+
+    @Override
+    public long countWithinRadius(double latitude, double longitude, double radius, Long excludeUserId) {
+        Owners owners = shardRing.ownersOf(GeoBounds.around(latitude, longitude, radius));
+        long count = shardClient.countWithinRadius(owners.remote(), latitude, longitude, radius, excludeUserId);
+        if (owners.local()) {
+            count += countOwnedWithinRadius(latitude, longitude, radius, excludeUserId);
+        }
+        return count;
+    }
+
+    @Override
+    public List<IndexedLocation> findInBounds(GeoBounds bounds, Long excludeUserId) {
+        Owners owners = shardRing.ownersOf(bounds);
+        List<IndexedLocation> locations = new ArrayList<>(
+            shardClient.findInBounds(owners.remote(), bounds, excludeUserId));
+        if (owners.local()) {
+            locations.addAll(findOwnedInBounds(bounds, excludeUserId));
+        }
+        return newest(locations, Function.identity());
+    }
+
+    @Override
+    public boolean isReady() {
+        return localStore.isReady();
+    }
+
+    /**
+     * Users within radius whose region this instance owns, nearest first
+     */
+    public List<NearbyCandidate> findOwnedWithinRadius(
+            double latitude, double longitude, double radius, Long excludeUserId) {
+        return owned(localStore.findWithinRadius(latitude, longitude, radius, excludeUserId),
+            NearbyCandidate::location);
+    }
+
+    /**
+     * The k nearest users whose region this instance owns
+     */
+    public List<NearbyCandidate> findOwnedNearest(
+            double latitude, double longitude, int k, double maxRadius, Long excludeUserId) {
+        return owned(localStore.findNearest(latitude, longitude, k, maxRadius, excludeUserId),
+            NearbyCandidate::location);
+    }
+
+    /**
+     * Users within radius whose region this instance owns. The store's own
+     * count is only used when every region the circle touches is ours;
+     * otherwise the owned candidates are counted.
+     */
+    public long countOwnedWithinRadius(double latitude, double longitude, double radius, Long excludeUserId) {
+        Owners owners = shardRing.ownersOf(GeoBounds.around(latitude, longitude, radius));
+        if (owners.remote().isEmpty() && localStore.isReady()) {
+            return localStore.countWithinRadius(latitude, longitude, radius, excludeUserId);
+        }
+        return findOwnedWithinRadius(latitude, longitude, radius, excludeUserId).size();
+    }
+
+    /**
+     * Users inside the bounding box whose region this instance owns
+     */
+    public List<IndexedLocation> findOwnedInBounds(GeoBounds bounds, Long excludeUserId) {
+        return owned(localStore.findInBounds(bounds, excludeUserId), Function.identity());
+    }
+
+    private <T> List<T> owned(List<T> items, Function<T, IndexedLocation> locationOf) {
+        Map<String, Boolean> ownedRegions = new HashMap<>();
+        List<T> owned = new ArrayList<>(items.size());
+        for (T item : items) {
+            IndexedLocation location = locationOf.apply(item);
+            String region = shardRing.regionOf(location.latitude(), location.longitude());
+            if (ownedRegions.computeIfAbsent(region,
+                    ignored -> shardRing.owns(location.latitude(), location.longitude()))) {
+                owned.add(item);
+            }
+        }
+        return owned;
+    }
+
+    private static List<NearbyCandidate> newestCandidates(List<NearbyCandidate> candidates) {
+        List<NearbyCandidate> newest = newest(candidates, NearbyCandidate::location);
+        newest.sort(Comparator.comparingDouble(NearbyCandidate::distance));
+        return newest;
+    }
+
+    /**
+     * One entry per user, keeping the newest position when shards disagree
+     * during a hand-off
+     */
+    private static <T> List<T> newest(List<T> items, Function<T, IndexedLocation> locationOf) {
+        Map<Long, T> byUser = new LinkedHashMap<>();
+        for (T item : items) {
+            byUser.merge(locationOf.apply(item).userId(), item, (kept, other) ->
+                isNewer(locationOf.apply(other).timestamp(), locationOf.apply(kept).timestamp()) ? other : kept);
+        }
+        return new ArrayList<>(byUser.values());
+    }
+
+    private static boolean isNewer(LocalDateTime candidate, LocalDateTime current) {
+        return candidate != null && (current == null || candidate.isAfter(current));
+    }
+}
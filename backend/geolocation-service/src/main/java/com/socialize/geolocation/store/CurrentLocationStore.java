@@ -0,0 +1,61 @@
+package com.socialize.geolocation.store;
+
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where nearby queries read users' current positions from.
+ *
+ * {@code location.store=local} (the default) keeps them in this node's
+ * {@link com.socialize.geolocation.index.SpatialGridIndex}, loaded from
+ * MySQL; {@code location.store=redis} keeps them in a Redis GEO set shared
+ * by all replicas. MySQL remains the durable store in both modes.
+ */
+public interface CurrentLocationStore {
+
+    /**
+     * Qualifier of this node's own store, which a sharded deployment
+     * wraps (see {@link com.socialize.geolocation.shard.ShardedCurrentLocationStore})
+     */
+    String SHARD_LOCAL = "shardLocalStore";
+
+    /**
+     * Insert or move a user's position; older readings never replace newer ones
+     */
+    void upsert(IndexedLocation location);
+
+    void remove(Long userId);
+
+    Optional<IndexedLocation> get(Long userId);
+
+    /**
+     * Users within radius (meters) of the point, nearest first
+     */
+    List<NearbyCandidate> findWithinRadius(double latitude, double longitude, double radius, Long excludeUserId);
+
+    /**
+     * The k users nearest the point within maxRadius (meters), nearest first
+     */
+    List<NearbyCandidate> findNearest(double latitude, double longitude, int k, double maxRadius, Long excludeUserId);
+
+    /**
+     * Users within radius (meters) of the point. Stores may stop counting
+     * at {@code location.max-count-results}, so the result reads as
+     * "at least" once it reaches that cap.
+     */
+    long countWithinRadius(double latitude, double longitude, double radius, Long excludeUserId);
+
+    /**
+     * Users inside the bounding box, in no particular order
+     */
+    List<IndexedLocation> findInBounds(GeoBounds bounds, Long excludeUserId);
+
+    /**
+     * Whether the store holds every current position yet
+     */
+    boolean isReady();
+}
@@ -0,0 +1,23 @@
+package com.socialize.geolocation.store;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The geofences each user was last found inside, so ENTER and EXIT events
+ * are published only on transitions.
+ *
+ * {@code location.store=local} keeps memberships in this node's memory;
+ * {@code location.store=redis} keeps them in Redis and swaps them
+ * atomically, so a transition fires once whichever replica sees it.
+ */
+public interface GeofenceMembershipStore {
+
+    /**
+     * Record the geofences a user is inside as of a reading and return the
+     * ones recorded before, or empty when a newer reading was already
+     * recorded
+     */
+    Optional<Set<Long>> swap(Long userId, Set<Long> geofenceIds, LocalDateTime asOf);
+}
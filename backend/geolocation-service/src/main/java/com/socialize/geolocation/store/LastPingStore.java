@@ -0,0 +1,35 @@
+package com.socialize.geolocation.store;
+
+import com.socialize.geolocation.ingest.LocationPing;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Newest persisted ping per user, from which the ingest stages continue
+ * their per-user state (trajectory anchors, daily distance). Each stage
+ * keeps its own scope.
+ *
+ * {@code location.store=local} keeps the pings in this node's memory;
+ * {@code location.store=redis} keeps them in Redis, so every replica's
+ * flush continues from the same point whichever replica took the ping.
+ */
+public interface LastPingStore {
+
+    /**
+     * The remembered ping of each of the given users that has one
+     */
+    Map<Long, LocationPing> getAll(String scope, Collection<Long> userIds);
+
+    /**
+     * Remember each user's newest ping; pings older than the remembered
+     * one are ignored
+     */
+    void advance(String scope, Collection<LocationPing> pings);
+
+    /**
+     * Forget users whose remembered ping is older than the given day
+     */
+    void evictBefore(String scope, LocalDate day);
+}
@@ -0,0 +1,119 @@
+package com.socialize.geolocation.store;
+
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.index.SpatialGridIndex;
+import com.socialize.geolocation.model.entity.UserLocation;
+import com.socialize.geolocation.repository.CustomLocationRepository;
+import com.socialize.geolocation.repository.UserLocationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-node store: the in-memory grid index, answered from MySQL while the
+ * index is still loading
+ */
+@Component
+@Qualifier(CurrentLocationStore.SHARD_LOCAL)
+@ConditionalOnProperty(name = "location.store", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalCurrentLocationStore implements CurrentLocationStore {
+
+    private final SpatialGridIndex spatialGridIndex;
+    private final UserLocationRepository userLocationRepository;
+    private final CustomLocationRepository customLocationRepository;
+
+    @Override
+    public void upsert(IndexedLocation location) {
+        spatialGridIndex.upsert(location);
+    }
+
+    @Override
+    public void remove(Long userId) {
+        spatialGridIndex.remove(userId);
+    }
+
+    @Override
+    public Optional<IndexedLocation> get(Long userId) {
+        return spatialGridIndex.get(userId);
+    }
+
+    @Override
+    public List<NearbyCandidate> findWithinRadius(
+            double latitude, double longitude, double radius, Long excludeUserId) {
+
+        if (spatialGridIndex.isReady()) {
+            return spatialGridIndex.findWithinRadius(latitude, longitude, radius, excludeUserId);
+        }
+
+        List<Object[]> nearbyUsersData = customLocationRepository
+            .findNearbyUsersDetailed(latitude, longitude, radius, excludeUserId);
+
+        List<NearbyCandidate> candidates = new ArrayList<>();
+        for (Object[] data : nearbyUsersData) {
+            IndexedLocation location = new IndexedLocation(
+                ((Number) data[0]).longValue(),
+                (Double) data[1],
+                (Double) data[2],
+                null,
+                (LocalDateTime) data[3]
+            );
+            candidates.add(new NearbyCandidate(location, (Double) data[4]));
+        }
+        return candidates;
+    }
+
+    @Override
+    public List<NearbyCandidate> findNearest(
+            double latitude, double longitude, int k, double maxRadius, Long excludeUserId) {
+
+        if (spatialGridIndex.isReady()) {
+            return spatialGridIndex.findNearest(latitude, longitude, k, maxRadius, excludeUserId);
+        }
+
+        List<NearbyCandidate> candidates = findWithinRadius(latitude, longitude, maxRadius, excludeUserId);
+        return candidates.size() > k ? candidates.subList(0, k) : candidates;
+    }
+
+    @Override
+    public long countWithinRadius(double latitude, double longitude, double radius, Long excludeUserId) {
+        if (spatialGridIndex.isReady()) {
+            return spatialGridIndex.countWithinRadius(latitude, longitude, radius, excludeUserId);
+        }
+
+        return userLocationRepository.countNearbyUsers(
+            latitude,
+            longitude,
+            GeoBounds.around(latitude, longitude, radius).toWkt(),
+            radius,
+            excludeUserId
+        );
+    }
+
+    @Override
+    public List<IndexedLocation> findInBounds(GeoBounds bounds, Long excludeUserId) {
+        if (spatialGridIndex.isReady()) {
+            return spatialGridIndex.findInBounds(bounds, excludeUserId);
+        }
+
+        List<IndexedLocation> locations = new ArrayList<>();
+        for (UserLocation location : userLocationRepository.findUsersInBoundingBox(bounds.toWkt(), excludeUserId)) {
+            locations.add(new IndexedLocation(location.getUserId(), location.getLatitude(),
+                location.getLongitude(), location.getAccuracy(), location.getTimestamp()));
+        }
+        return locations;
+    }
+
+    @Override
+    public boolean isReady() {
+        return spatialGridIndex.isReady();
+    }
+}
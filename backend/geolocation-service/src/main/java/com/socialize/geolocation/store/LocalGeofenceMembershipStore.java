@@ -0,0 +1,37 @@
+package com.socialize.geolocation.store;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-node geofence memberships. Users outside every geofence are not
+ * remembered.
+ */
+@Component
+@ConditionalOnProperty(name = "location.store", havingValue = "local", matchIfMissing = true)
+public class LocalGeofenceMembershipStore implements GeofenceMembershipStore {
+
+    private final Map<Long, Membership> membershipByUser = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Set<Long>> swap(Long userId, Set<Long> geofenceIds, LocalDateTime asOf) {
+        AtomicReference<Set<Long>> before = new AtomicReference<>();
+        membershipByUser.compute(userId, (key, previous) -> {
+            if (previous != null && previous.asOf().isAfter(asOf)) {
+                return previous;
+            }
+            before.set(previous != null ? previous.geofenceIds() : Set.of());
+            return geofenceIds.isEmpty() ? null : new Membership(Set.copyOf(geofenceIds), asOf);
+        });
+        return Optional.ofNullable(before.get());
+    }
+
+    private record Membership(Set<Long> geofenceIds, LocalDateTime asOf) {}
+}
@@ -0,0 +1,53 @@
+package com.socialize.geolocation.store;
+
+import com.socialize.geolocation.ingest.LocationPing;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-node last pings, for deployments whose replicas each ingest their
+ * own users
+ */
+@Component
+@ConditionalOnProperty(name = "location.store", havingValue = "local", matchIfMissing = true)
+public class LocalLastPingStore implements LastPingStore {
+
+    private final Map<String, Map<Long, LocationPing>> pingsByScope = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<Long, LocationPing> getAll(String scope, Collection<Long> userIds) {
+        Map<Long, LocationPing> pings = scope(scope);
+        Map<Long, LocationPing> found = new HashMap<>();
+        for (Long userId : userIds) {
+            LocationPing ping = pings.get(userId);
+            if (ping != null) {
+                found.put(userId, ping);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void advance(String scope, Collection<LocationPing> pings) {
+        Map<Long, LocationPing> remembered = scope(scope);
+        for (LocationPing ping : pings) {
+            remembered.merge(ping.userId(), ping, (previous, candidate) ->
+                candidate.timestamp().isBefore(previous.timestamp()) ? previous : candidate);
+        }
+    }
+
+    @Override
+    public void evictBefore(String scope, LocalDate day) {
+        scope(scope).values().removeIf(ping -> ping.timestamp().toLocalDate().isBefore(day));
+    }
+
+    private Map<Long, LocationPing> scope(String scope) {
+        return pingsByScope.computeIfAbsent(scope, key -> new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,389 @@
+package com.socialize.geolocation.store;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.ingest.LocationPing;
+import com.socialize.geolocation.model.dto.LocationHistoryDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Off-heap copy of the last {@code location.history-window-hours} of
+ * stored history, so recent history pages are read without a query.
+ *
+ * Rows live in fixed-size chunks carved from direct-memory slabs. Each
+ * chunk holds {@value #RECORDS_PER_CHUNK} rows column by column (ids,
+ * timestamps as epoch micros, latitudes, longitudes, accuracies) and a
+ * user's chunks are appended to in timestamp order. Every user carries a
+ * coverage start: all of the user's stored rows at or after it are in the
+ * window, older ones only in MySQL. Out-of-order rows and a full slab
+ * move the coverage start forward instead of breaking that guarantee.
+ *
+ * The window only sees rows this instance writes, so it is enabled with
+ * the local store and sharding off, where one instance persists every
+ * user's pings.
+ */
+@Component
+@Slf4j
+public class RecentHistoryWindow {
+
+    private static final int RECORDS_PER_CHUNK = 64;
+    private static final int ID_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = ID_OFFSET + RECORDS_PER_CHUNK * Long.BYTES;
+    private static final int LATITUDE_OFFSET = TIMESTAMP_OFFSET + RECORDS_PER_CHUNK * Long.BYTES;
+    private static final int LONGITUDE_OFFSET = LATITUDE_OFFSET + RECORDS_PER_CHUNK * Double.BYTES;
+    private static final int ACCURACY_OFFSET = LONGITUDE_OFFSET + RECORDS_PER_CHUNK * Double.BYTES;
+    private static final int CHUNK_BYTES = ACCURACY_OFFSET + RECORDS_PER_CHUNK * Double.BYTES;
+    private static final int CHUNKS_PER_SLAB = 4096;
+    private static final long NO_ID = -1L;
+
+    private final boolean enabled;
+    private final long windowMicros;
+    private final int maxChunks;
+    private final long startedAtMicros = toMicros(LocalDateTime.now());
+
+    private final Map<Long, UserWindow> windows = new ConcurrentHashMap<>();
+    private final ByteBuffer[] slabs;
+    private final Object allocatorLock = new Object();
+    private int[] freeChunks = new int[0];
+    private int freeCount;
+    private int nextUnusedChunk;
+    private volatile long evictedBeforeMicros = Long.MIN_VALUE;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter overflowCounter;
+
+    public RecentHistoryWindow(LocationProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.getHistoryWindowEnabled()
+            && "local".equals(properties.getStore())
+            && !properties.getShardingEnabled();
+        this.windowMicros = properties.getHistoryWindowHours() * 3_600_000_000L;
+        this.maxChunks = (int) Math.min(Integer.MAX_VALUE - CHUNKS_PER_SLAB,
+            properties.getHistoryWindowMaxMb() * 1024L * 1024L / CHUNK_BYTES);
+        this.slabs = new ByteBuffer[(maxChunks + CHUNKS_PER_SLAB - 1) / CHUNKS_PER_SLAB];
+
+        Gauge.builder("location.history.window.bytes", this, RecentHistoryWindow::allocatedBytes)
+            .description("Direct memory held by the recent history window")
+            .register(meterRegistry);
+        Gauge.builder("location.history.window.users", windows, Map::size)
+            .description("Users with rows in the recent history window")
+            .register(meterRegistry);
+        this.hitCounter = meterRegistry.counter("location.history.window.hits");
+        this.missCounter = meterRegistry.counter("location.history.window.misses");
+        this.overflowCounter = meterRegistry.counter("location.history.window.overflow");
+
+        if (!enabled) {
+            log.info("Recent history window disabled, history reads go to MySQL");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add committed history rows. {@code ids} holds their generated ids in
+     * the same order, {@code -1} where the id is unknown.
+     */
+    public void append(List<LocationPing> history, long[] ids) {
+        if (!enabled) {
+            return;
+        }
+
+        for (int i = 0; i < history.size(); i++) {
+            LocationPing ping = history.get(i);
+            long micros = toMicros(ping.timestamp());
+            if (micros < startedAtMicros) {
+                // Rows from before startup may sit next to ones this window never saw
+                continue;
+            }
+            long id = i < ids.length ? ids[i] : NO_ID;
+            double accuracy = ping.accuracy() != null ? ping.accuracy() : Double.NaN;
+
+            while (true) {
+                UserWindow window = windows.computeIfAbsent(ping.userId(),
+                    userId -> new UserWindow(Math.max(startedAtMicros, evictedBeforeMicros)));
+                synchronized (window) {
+                    if (window.retired) {
+                        continue;
+                    }
+                    appendRow(window, id, micros, ping.latitude(), ping.longitude(), accuracy);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * One page of a user's history after {@code since}, newest first, when
+     * the window holds every row on it. The page total is exact when the
+     * window covers all of {@code since}; otherwise rows before
+     * {@link RecentHistoryPage#coveredSince()} still have to be counted in
+     * MySQL.
+     */
+    public Optional<RecentHistoryPage> findPage(Long userId, LocalDateTime since, int page, int size) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        UserWindow window = windows.get(userId);
+        if (window == null) {
+            missCounter.increment();
+            return Optional.empty();
+        }
+
+        long sinceMicros = toMicros(since);
+        long offset = (long) page * size;
+        synchronized (window) {
+            if (window.retired) {
+                missCounter.increment();
+                return Optional.empty();
+            }
+
+            int count = window.size();
+            boolean complete = sinceMicros >= window.coveredSinceMicros;
+            int matching = complete ? count - firstAfter(window, sinceMicros) : count;
+            if (!complete && offset + size > matching) {
+                // Part of the page is older than the window
+                missCounter.increment();
+                return Optional.empty();
+            }
+
+            List<LocationHistoryDTO> content = new ArrayList<>(
+                (int) Math.max(0, Math.min(size, matching - offset)));
+            for (long n = offset; n < matching && content.size() < size; n++) {
+                content.add(read(userId, window, count - 1 - (int) n));
+            }
+
+            hitCounter.increment();
+            return Optional.of(new RecentHistoryPage(content, matching,
+                complete ? null : fromMicros(window.coveredSinceMicros)));
+        }
+    }
+
+    /**
+     * Release chunks whose rows have all left the window
+     */
+    @Scheduled(fixedDelayString = "${location.history-window-sweep-interval-ms:60000}")
+    public void evictExpired() {
+        if (!enabled) {
+            return;
+        }
+
+        long cutoff = toMicros(LocalDateTime.now()) - windowMicros;
+        // Windows created from now on must not claim rows older than the cutoff
+        evictedBeforeMicros = cutoff;
+
+        int released = 0;
+        for (Map.Entry<Long, UserWindow> entry : windows.entrySet()) {
+            UserWindow window = entry.getValue();
+            synchronized (window) {
+                while (window.chunkCount > 0) {
+                    int lastSlot = (window.chunkCount == 1 ? window.lastChunkSize : RECORDS_PER_CHUNK) - 1;
+                    long newest = lastSlot >= 0 ? timestampAt(window.chunks[0], lastSlot) : Long.MIN_VALUE;
+                    if (newest >= cutoff) {
+                        break;
+                    }
+                    window.coveredSinceMicros = Math.max(window.coveredSinceMicros, newest + 1);
+                    releaseFirstChunk(window);
+                    released++;
+                }
+                if (window.chunkCount == 0 && window.coveredSinceMicros <= cutoff) {
+                    window.retired = true;
+                    windows.remove(entry.getKey(), window);
+                }
+            }
+        }
+
+        if (released > 0) {
+            log.debug("Released {} expired history window chunks, {} users remain", released, windows.size());
+        }
+    }
+
+    private void appendRow(UserWindow window, long id, long micros,
+                           double latitude, double longitude, double accuracy) {
+        if (micros < window.coveredSinceMicros) {
+            // Older than the coverage start: the row is only in MySQL, as expected
+            return;
+        }
+        if (window.size() > 0 && micros < window.lastMicros) {
+            // The window stays sorted; restart coverage after everything seen so far
+            clear(window, window.lastMicros + 1);
+            return;
+        }
+
+        if (window.chunkCount == 0 || window.lastChunkSize == RECORDS_PER_CHUNK) {
+            int chunk = allocateChunk();
+            if (chunk < 0) {
+                overflowCounter.increment();
+                clear(window, micros + 1);
+                return;
+            }
+            if (window.chunkCount == window.chunks.length) {
+                window.chunks = Arrays.copyOf(window.chunks, window.chunks.length * 2);
+            }
+            window.chunks[window.chunkCount++] = chunk;
+            window.lastChunkSize = 0;
+        }
+
+        int chunk = window.chunks[window.chunkCount - 1];
+        ByteBuffer slab = slabOf(chunk);
+        int base = baseOf(chunk);
+        int slot = window.lastChunkSize++;
+        slab.putLong(base + ID_OFFSET + slot * Long.BYTES, id);
+        slab.putLong(base + TIMESTAMP_OFFSET + slot * Long.BYTES, micros);
+        slab.putDouble(base + LATITUDE_OFFSET + slot * Double.BYTES, latitude);
+        slab.putDouble(base + LONGITUDE_OFFSET + slot * Double.BYTES, longitude);
+        slab.putDouble(base + ACCURACY_OFFSET + slot * Double.BYTES, accuracy);
+        window.lastMicros = micros;
+    }
+
+    private LocationHistoryDTO read(Long userId, UserWindow window, int index) {
+        int chunk = window.chunks[index / RECORDS_PER_CHUNK];
+        int slot = index % RECORDS_PER_CHUNK;
+        ByteBuffer slab = slabOf(chunk);
+        int base = baseOf(chunk);
+
+        long id = slab.getLong(base + ID_OFFSET + slot * Long.BYTES);
+        double accuracy = slab.getDouble(base + ACCURACY_OFFSET + slot * Double.BYTES);
+        return LocationHistoryDTO.builder()
+            .id(id != NO_ID ? id : null)
+            .userId(userId)
+            .latitude(slab.getDouble(base + LATITUDE_OFFSET + slot * Double.BYTES))
+            .longitude(slab.getDouble(base + LONGITUDE_OFFSET + slot * Double.BYTES))
+            .accuracy(Double.isNaN(accuracy) ? null : accuracy)
+            .timestamp(fromMicros(slab.getLong(base + TIMESTAMP_OFFSET + slot * Long.BYTES)))
+            .build();
+    }
+
+    /**
+     * Index of the oldest row strictly after {@code micros}
+     */
+    private int firstAfter(UserWindow window, long micros) {
+        int low = 0;
+        int high = window.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long timestamp = timestampAt(window.chunks[mid / RECORDS_PER_CHUNK], mid % RECORDS_PER_CHUNK);
+            if (timestamp <= micros) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long timestampAt(int chunk, int slot) {
+        return slabOf(chunk).getLong(baseOf(chunk) + TIMESTAMP_OFFSET + slot * Long.BYTES);
+    }
+
+    private void clear(UserWindow window, long coveredSinceMicros) {
+        while (window.chunkCount > 0) {
+            releaseFirstChunk(window);
+        }
+        window.coveredSinceMicros = coveredSinceMicros;
+    }
+
+    private void releaseFirstChunk(UserWindow window) {
+        freeChunk(window.chunks[0]);
+        System.arraycopy(window.chunks, 1, window.chunks, 0, window.chunkCount - 1);
+        window.chunkCount--;
+        if (window.chunkCount == 0) {
+            window.lastChunkSize = 0;
+        }
+    }
+
+    private int allocateChunk() {
+        synchronized (allocatorLock) {
+            if (freeCount > 0) {
+                return freeChunks[--freeCount];
+            }
+            if (nextUnusedChunk >= maxChunks) {
+                return -1;
+            }
+            int chunk = nextUnusedChunk++;
+            int slab = chunk / CHUNKS_PER_SLAB;
+            if (slabs[slab] == null) {
+                slabs[slab] = ByteBuffer.allocateDirect(CHUNKS_PER_SLAB * CHUNK_BYTES);
+            }
+            return chunk;
+        }
+    }
+
+    private void freeChunk(int chunk) {
+        synchronized (allocatorLock) {
+            if (freeCount == freeChunks.length) {
+                freeChunks = Arrays.copyOf(freeChunks, Math.max(64, freeChunks.length * 2));
+            }
+            freeChunks[freeCount++] = chunk;
+        }
+    }
+
+    private ByteBuffer slabOf(int chunk) {
+        return slabs[chunk / CHUNKS_PER_SLAB];
+    }
+
+    private static int baseOf(int chunk) {
+        return (chunk % CHUNKS_PER_SLAB) * CHUNK_BYTES;
+    }
+
+    private double allocatedBytes() {
+        synchronized (allocatorLock) {
+            return (double) (nextUnusedChunk - freeCount) * CHUNK_BYTES;
+        }
+    }
+
+    /**
+     * Epoch microseconds, rounded the way MySQL stores DATETIME(6)
+     */
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + (timestamp.getNano() + 500) / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Chunks of one user, oldest first; only the last one can be partly filled
+     */
+    private static final class UserWindow {
+        private int[] chunks = new int[2];
+        private int chunkCount;
+        private int lastChunkSize;
+        private long lastMicros;
+        private long coveredSinceMicros;
+        private boolean retired;
+
+        private UserWindow(long coveredSinceMicros) {
+            this.coveredSinceMicros = coveredSinceMicros;
+        }
+
+        private int size() {
+            return chunkCount == 0 ? 0 : (chunkCount - 1) * RECORDS_PER_CHUNK + lastChunkSize;
+        }
+    }
+
+    /**
+     * A history page served from the window. {@code coveredSince} is null
+     * when {@code total} is exact, otherwise rows before it are missing
+     * from the total.
+     */
+    public record RecentHistoryPage(List<LocationHistoryDTO> content, long total, LocalDateTime coveredSince) {}
+}
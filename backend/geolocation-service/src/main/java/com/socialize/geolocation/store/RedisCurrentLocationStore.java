@@ -0,0 +1,288 @@
+package com.socialize.geolocation.store;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.repository.IndexedLocationRepository;
+import com.socialize.geolocation.shard.ShardRing;
+import com.socialize.geolocation.service.DistanceCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisGeoCommands.DistanceUnit;
+import org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation;
+import org.springframework.data.redis.connection.RedisGeoCommands.GeoSearchCommandArgs;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.domain.geo.BoundingBox;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shared store for horizontally scaled deployments.
+ *
+ * Positions live in one Redis GEO sorted set keyed by user ID, and each
+ * user's accuracy and reading time in a small hash next to it, so any
+ * replica can answer any nearby query with a single GEOSEARCH. Writes go
+ * through a script that ignores readings older than the stored one.
+ * Counts run as a script too, so matches never leave Redis, and stop at
+ * {@code location.max-count-results}.
+ */
+@Component
+@Qualifier(CurrentLocationStore.SHARD_LOCAL)
+@ConditionalOnProperty(name = "location.store", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisCurrentLocationStore implements CurrentLocationStore {
+
+    private static final String GEO_KEY = "location:current";
+    private static final String META_KEY_PREFIX = "location:current:meta:";
+    private static final String ACCURACY = "accuracy";
+    private static final String TIMESTAMP = "timestamp";
+
+    private static final DefaultRedisScript<Long> UPSERT_SCRIPT = new DefaultRedisScript<>("""
+        local stored = redis.call('HGET', KEYS[2], 'timestamp')
+        if stored and tonumber(stored) > tonumber(ARGV[4]) then
+            return 0
+        end
+        redis.call('GEOADD', KEYS[1], ARGV[1], ARGV[2], ARGV[5])
+        redis.call('HSET', KEYS[2], 'accuracy', ARGV[3], 'timestamp', ARGV[4])
+        return 1
+        """, Long.class);
+
+    /**
+     * GEOSEARCH with COUNT ... ANY stops scanning once the cap is reached
+     */
+    private static final DefaultRedisScript<Long> COUNT_SCRIPT = new DefaultRedisScript<>("""
+        local members = redis.call('GEOSEARCH', KEYS[1], 'FROMLONLAT', ARGV[1], ARGV[2],
+            'BYRADIUS', ARGV[3], 'm', 'COUNT', ARGV[4], 'ANY')
+        local count = #members
+        for _, member in ipairs(members) do
+            if member == ARGV[5] then
+                count = count - 1
+            end
+        end
+        return count
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final IndexedLocationRepository indexedLocationRepository;
+    private final DistanceCalculator distanceCalculator;
+    private final LocationProperties locationProperties;
+    private final ShardRing shardRing;
+
+    /**
+     * Seed an empty GEO set from MySQL so the first replica up after a
+     * Redis flush does not serve empty results. A sharded instance only
+     * seeds the regions it owns.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        try {
+            Long size = redisTemplate.opsForZSet().zCard(GEO_KEY);
+            if (size != null && size > 0) {
+                return;
+            }
+            long[] seeded = {0};
+            indexedLocationRepository.streamAll(location -> {
+                if (shardRing.owns(location.latitude(), location.longitude())) {
+                    upsert(location);
+                    seeded[0]++;
+                }
+            });
+            log.info("Seeded Redis location store with {} current locations", seeded[0]);
+        } catch (Exception e) {
+            log.error("Failed to seed Redis location store: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void upsert(IndexedLocation location) {
+        String userId = location.userId().toString();
+        redisTemplate.execute(UPSERT_SCRIPT, List.of(GEO_KEY, META_KEY_PREFIX + userId),
+            Double.toString(location.longitude()),
+            Double.toString(location.latitude()),
+            location.accuracy() != null ? location.accuracy().toString() : "",
+            Long.toString(toEpochMillis(location.timestamp())),
+            userId);
+    }
+
+    @Override
+    public void remove(Long userId) {
+        redisTemplate.opsForZSet().remove(GEO_KEY, userId.toString());
+        redisTemplate.delete(META_KEY_PREFIX + userId);
+    }
+
+    @Override
+    public Optional<IndexedLocation> get(Long userId) {
+        List<Point> positions = redisTemplate.opsForGeo().position(GEO_KEY, userId.toString());
+        if (positions == null || positions.isEmpty() || positions.get(0) == null) {
+            return Optional.empty();
+        }
+        Point position = positions.get(0);
+        List<Object> metadata = redisTemplate.opsForHash()
+            .multiGet(META_KEY_PREFIX + userId, List.of(ACCURACY, TIMESTAMP));
+        return Optional.of(toLocation(userId, position, metadata));
+    }
+
+    @Override
+    public List<NearbyCandidate> findWithinRadius(
+            double latitude, double longitude, double radius, Long excludeUserId) {
+        return findNearest(latitude, longitude, locationProperties.getMaxNearbyResults(), radius, excludeUserId);
+    }
+
+    @Override
+    public List<NearbyCandidate> findNearest(
+            double latitude, double longitude, int k, double maxRadius, Long excludeUserId) {
+
+        // One extra in case the caller is among the results
+        GeoResults<GeoLocation<String>> results = redisTemplate.opsForGeo().search(GEO_KEY,
+            GeoReference.fromCoordinate(new Point(longitude, latitude)),
+            new Distance(maxRadius, DistanceUnit.METERS),
+            GeoSearchCommandArgs.newGeoSearchArgs()
+                .includeCoordinates()
+                .includeDistance()
+                .sortAscending()
+                .limit(k + 1));
+
+        List<GeoResult<GeoLocation<String>>> matches = withoutUser(results, excludeUserId);
+        if (matches.size() > k) {
+            matches = matches.subList(0, k);
+        }
+        List<List<Object>> metadata = fetchMetadata(matches);
+
+        List<NearbyCandidate> candidates = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            GeoLocation<String> match = matches.get(i).getContent();
+            candidates.add(new NearbyCandidate(
+                toLocation(Long.valueOf(match.getName()), match.getPoint(), metadata.get(i)),
+                matches.get(i).getDistance().getValue()));
+        }
+        return candidates;
+    }
+
+    @Override
+    public long countWithinRadius(double latitude, double longitude, double radius, Long excludeUserId) {
+        int cap = locationProperties.getMaxCountResults();
+        // One extra in case the excluded user is among the matches
+        Long count = redisTemplate.execute(COUNT_SCRIPT, List.of(GEO_KEY),
+            Double.toString(longitude),
+            Double.toString(latitude),
+            Double.toString(radius),
+            Integer.toString(cap + 1),
+            excludeUserId != null ? excludeUserId.toString() : "");
+        return count != null ? Math.min(count, cap) : 0;
+    }
+
+    @Override
+    public List<IndexedLocation> findInBounds(GeoBounds bounds, Long excludeUserId) {
+        double centerLatitude = (bounds.minLatitude() + bounds.maxLatitude()) / 2;
+        double centerLongitude = (bounds.minLongitude() + bounds.maxLongitude()) / 2;
+        double width = distanceCalculator.haversine(centerLatitude, bounds.minLongitude(),
+            centerLatitude, bounds.maxLongitude());
+        double height = distanceCalculator.haversine(bounds.minLatitude(), centerLongitude,
+            bounds.maxLatitude(), centerLongitude);
+
+        GeoResults<GeoLocation<String>> results = redisTemplate.opsForGeo().search(GEO_KEY,
+            GeoReference.fromCoordinate(new Point(centerLongitude, centerLatitude)),
+            new BoundingBox(width, height, DistanceUnit.METERS),
+            GeoSearchCommandArgs.newGeoSearchArgs().includeCoordinates());
+
+        List<GeoResult<GeoLocation<String>>> matches = withoutUser(results, excludeUserId);
+        List<List<Object>> metadata = fetchMetadata(matches);
+
+        List<IndexedLocation> locations = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            GeoLocation<String> match = matches.get(i).getContent();
+            IndexedLocation location = toLocation(Long.valueOf(match.getName()), match.getPoint(), metadata.get(i));
+            // GEOSEARCH boxes are measured on the sphere; trim to the exact box
+            if (bounds.contains(location.latitude(), location.longitude())) {
+                locations.add(location);
+            }
+        }
+        return locations;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    private List<GeoResult<GeoLocation<String>>> withoutUser(
+            GeoResults<GeoLocation<String>> results, Long excludeUserId) {
+        if (results == null) {
+            return List.of();
+        }
+        String excluded = excludeUserId != null ? excludeUserId.toString() : null;
+        return results.getContent().stream()
+            .filter(result -> !result.getContent().getName().equals(excluded))
+            .toList();
+    }
+
+    /**
+     * Accuracy and timestamp for each match, in one pipelined round trip
+     */
+    @SuppressWarnings("unchecked")
+    private List<List<Object>> fetchMetadata(List<GeoResult<GeoLocation<String>>> matches) {
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        byte[] accuracyField = ACCURACY.getBytes(StandardCharsets.UTF_8);
+        byte[] timestampField = TIMESTAMP.getBytes(StandardCharsets.UTF_8);
+
+        List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (GeoResult<GeoLocation<String>> match : matches) {
+                hashFields(connection, META_KEY_PREFIX + match.getContent().getName(),
+                    accuracyField, timestampField);
+            }
+            return null;
+        });
+
+        List<List<Object>> metadata = new ArrayList<>(replies.size());
+        for (Object reply : replies) {
+            metadata.add(reply instanceof List<?> fields ? (List<Object>) fields : List.of());
+        }
+        return metadata;
+    }
+
+    private static void hashFields(RedisConnection connection, String key, byte[]... fields) {
+        connection.hashCommands().hMGet(key.getBytes(StandardCharsets.UTF_8), fields);
+    }
+
+    private IndexedLocation toLocation(Long userId, Point position, List<Object> metadata) {
+        Object accuracy = metadata.size() > 0 ? metadata.get(0) : null;
+        Object timestamp = metadata.size() > 1 ? metadata.get(1) : null;
+        return new IndexedLocation(
+            userId,
+            position.getY(),
+            position.getX(),
+            accuracy instanceof String text && !text.isEmpty() ? Double.valueOf(text) : null,
+            timestamp instanceof String text ? toDateTime(Long.parseLong(text)) : null);
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
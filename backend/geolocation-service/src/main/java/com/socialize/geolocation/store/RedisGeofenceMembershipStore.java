@@ -0,0 +1,75 @@
+package com.socialize.geolocation.store;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Geofence memberships shared by all replicas, one small hash per user
+ * holding the comma-separated geofence IDs and the reading time they
+ * were recorded for
+ */
+@Component
+@ConditionalOnProperty(name = "location.store", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisGeofenceMembershipStore implements GeofenceMembershipStore {
+
+    private static final String KEY_PREFIX = "geofence:membership:";
+
+    /**
+     * Returns the previous IDs, or nil when a newer reading is recorded
+     */
+    private static final DefaultRedisScript<String> SWAP_SCRIPT = new DefaultRedisScript<>("""
+        local stored = redis.call('HGET', KEYS[1], 'asOf')
+        if stored and tonumber(stored) > tonumber(ARGV[2]) then
+            return false
+        end
+        local previous = redis.call('HGET', KEYS[1], 'ids') or ''
+        redis.call('HSET', KEYS[1], 'ids', ARGV[1], 'asOf', ARGV[2])
+        if ARGV[1] == '' then
+            -- Kept a while so a late, older reading cannot re-enter the user
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+        else
+            redis.call('PERSIST', KEYS[1])
+        end
+        return previous
+        """, String.class);
+
+    /**
+     * How long an empty membership is kept after the user left every geofence
+     */
+    private static final Duration EMPTY_TTL = Duration.ofDays(1);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public Optional<Set<Long>> swap(Long userId, Set<Long> geofenceIds, LocalDateTime asOf) {
+        String ids = geofenceIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        long asOfMillis = asOf.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        String previous = redisTemplate.execute(SWAP_SCRIPT, List.of(KEY_PREFIX + userId),
+            ids, String.valueOf(asOfMillis), String.valueOf(EMPTY_TTL.toSeconds()));
+        if (previous == null) {
+            return Optional.empty();
+        }
+
+        Set<Long> before = new HashSet<>();
+        for (String id : previous.split(",")) {
+            if (!id.isEmpty()) {
+                before.add(Long.valueOf(id));
+            }
+        }
+        return Optional.of(before);
+    }
+}
@@ -0,0 +1,126 @@
+package com.socialize.geolocation.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialize.geolocation.ingest.LocationPing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Last pings shared by all replicas, one JSON value per scope and user.
+ * Writes go through a script that keeps the newer of the stored and the
+ * offered ping, and values expire instead of being evicted nightly.
+ */
+@Component
+@ConditionalOnProperty(name = "location.store", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisLastPingStore implements LastPingStore {
+
+    private static final String KEY_PREFIX = "ingest:last:";
+
+    /**
+     * As long as the local store keeps a ping: through the day after it
+     */
+    private static final Duration TTL = Duration.ofDays(2);
+
+    /**
+     * KEYS are the users' keys; ARGV holds the TTL, then the reading time
+     * and value of each key in turn
+     */
+    private static final DefaultRedisScript<Long> ADVANCE_SCRIPT = new DefaultRedisScript<>("""
+        local written = 0
+        for i, key in ipairs(KEYS) do
+            local at = tonumber(ARGV[i * 2])
+            local stored = redis.call('GET', key)
+            if not stored or cjson.decode(stored).at <= at then
+                redis.call('SET', key, ARGV[i * 2 + 1], 'EX', ARGV[1])
+                written = written + 1
+            end
+        end
+        return written
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Map<Long, LocationPing> getAll(String scope, Collection<Long> userIds) {
+        List<Long> ids = List.copyOf(userIds);
+        Map<Long, LocationPing> found = new HashMap<>();
+        if (ids.isEmpty()) {
+            return found;
+        }
+
+        List<String> values = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> key(scope, id)).toList());
+        for (int i = 0; values != null && i < values.size(); i++) {
+            String json = values.get(i);
+            if (json == null) {
+                continue;
+            }
+            try {
+                found.put(ids.get(i), objectMapper.readValue(json, StoredPing.class).ping());
+            } catch (JsonProcessingException e) {
+                log.warn("Ignoring unreadable last ping of user {}: {}", ids.get(i), e.getMessage());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void advance(String scope, Collection<LocationPing> pings) {
+        Map<Long, LocationPing> newest = new LinkedHashMap<>();
+        for (LocationPing ping : pings) {
+            newest.merge(ping.userId(), ping, (previous, candidate) ->
+                candidate.timestamp().isBefore(previous.timestamp()) ? previous : candidate);
+        }
+        if (newest.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(newest.size());
+        List<String> args = new ArrayList<>(newest.size() * 2 + 1);
+        args.add(String.valueOf(TTL.toSeconds()));
+        for (LocationPing ping : newest.values()) {
+            long at = ping.timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            try {
+                String json = objectMapper.writeValueAsString(new StoredPing(at, ping));
+                keys.add(key(scope, ping.userId()));
+                args.add(String.valueOf(at));
+                args.add(json);
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize last ping of user {}: {}", ping.userId(), e.getMessage());
+            }
+        }
+        redisTemplate.execute(ADVANCE_SCRIPT, keys, args.toArray());
+    }
+
+    @Override
+    public void evictBefore(String scope, LocalDate day) {
+        // Values expire on their own
+    }
+
+    private static String key(String scope, Long userId) {
+        return KEY_PREFIX + scope + ":" + userId;
+    }
+
+    /**
+     * Stored value; the reading time in epoch milliseconds lets the
+     * script compare pings without parsing dates
+     */
+    record StoredPing(long at, LocationPing ping) {}
+}
@@ -0,0 +1,21 @@
+package com.socialize.geolocation.subscription;
+
+import com.socialize.geolocation.index.IndexedLocation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "location.store", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalLocationChangeRelay implements LocationChangeRelay {
+
+    private final NearbySubscriptionService nearbySubscriptionService;
+
+    @Override
+    public void publish(Optional<IndexedLocation> previous, IndexedLocation current) {
+        nearbySubscriptionService.onLocationChanged(previous, current);
+    }
+}
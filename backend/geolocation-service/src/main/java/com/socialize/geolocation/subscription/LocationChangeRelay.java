@@ -0,0 +1,17 @@
+package com.socialize.geolocation.subscription;
+
+import com.socialize.geolocation.index.IndexedLocation;
+
+import java.util.Optional;
+
+/**
+ * Carries accepted position changes to the nearby subscriptions.
+ *
+ * {@code location.store=local} hands them straight to this instance's
+ * subscriptions; {@code location.store=redis} broadcasts them to every
+ * replica, since a subscriber may be connected to any of them.
+ */
+public interface LocationChangeRelay {
+
+    void publish(Optional<IndexedLocation> previous, IndexedLocation current);
+}
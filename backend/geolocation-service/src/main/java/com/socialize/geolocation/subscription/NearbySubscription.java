@@ -0,0 +1,54 @@
+package com.socialize.geolocation.subscription;
+
+import com.socialize.geolocation.index.GeoBounds;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A client watching the users within a fixed circle.
+ *
+ * Outgoing events are queued per subscription and written by one drain
+ * task at a time, so a client always sees its deltas in order and a slow
+ * client never blocks the location update path.
+ */
+@Getter
+public class NearbySubscription {
+
+    private final String id;
+    private final Long subscriberId;
+    private final double latitude;
+    private final double longitude;
+    private final double radius;
+    private final GeoBounds bounds;
+    private final SseEmitter emitter;
+
+    private final Set<Long> visibleUserIds = ConcurrentHashMap.newKeySet();
+    private final Queue<SseEmitter.SseEventBuilder> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public NearbySubscription(String id, Long subscriberId, double latitude, double longitude,
+                              double radius, SseEmitter emitter) {
+        this.id = id;
+        this.subscriberId = subscriberId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radius = radius;
+        this.bounds = GeoBounds.around(latitude, longitude, radius);
+        this.emitter = emitter;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        this.closed = true;
+    }
+}
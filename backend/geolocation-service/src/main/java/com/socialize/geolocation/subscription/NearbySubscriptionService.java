@@ -0,0 +1,272 @@
+package com.socialize.geolocation.subscription;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.model.dto.NearbyBuddyDelta;
+import com.socialize.geolocation.model.dto.NearbyBuddyDelta.DeltaType;
+import com.socialize.geolocation.model.dto.NearbyUserDTO;
+import com.socialize.geolocation.service.BuddyEnrichmentService;
+import com.socialize.geolocation.service.DistanceCalculator;
+import com.socialize.geolocation.store.CurrentLocationStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+
+/**
+ * Pushes nearby-buddy changes to subscribed clients over server-sent events.
+ *
+ * A subscriber first receives a "snapshot" event with the enriched buddies
+ * in its circle, then "delta" events (ENTERED, MOVED, LEFT) as location
+ * updates relayed by the {@link LocationChangeRelay} move users in or
+ * around it. Deltas only carry coordinates; clients resolve profiles of
+ * entering users through user-service. Subscriptions are bucketed into grid cells so an
+ * update only visits subscriptions whose circle may cover the user's old
+ * or new position.
+ */
+@Service
+@Slf4j
+public class NearbySubscriptionService {
+
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String DELTA_EVENT = "delta";
+
+    private final CurrentLocationStore currentLocationStore;
+    private final BuddyEnrichmentService buddyEnrichmentService;
+    private final DistanceCalculator distanceCalculator;
+    private final LocationProperties locationProperties;
+    private final Executor subscriptionExecutor;
+    private final double cellSize;
+
+    private final Map<String, NearbySubscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> subscriptionsByCell = new ConcurrentHashMap<>();
+
+    public NearbySubscriptionService(
+            CurrentLocationStore currentLocationStore,
+            BuddyEnrichmentService buddyEnrichmentService,
+            DistanceCalculator distanceCalculator,
+            LocationProperties locationProperties,
+            @Qualifier("nearbySubscriptionExecutor") Executor subscriptionExecutor,
+            MeterRegistry meterRegistry) {
+        this.currentLocationStore = currentLocationStore;
+        this.buddyEnrichmentService = buddyEnrichmentService;
+        this.distanceCalculator = distanceCalculator;
+        this.locationProperties = locationProperties;
+        this.subscriptionExecutor = subscriptionExecutor;
+        this.cellSize = locationProperties.getSubscriptionCellSizeDegrees();
+
+        Gauge.builder("location.nearby.subscriptions", subscriptions, Map::size)
+            .description("Open nearby-buddies subscriptions")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Open a subscription for the circle around a point
+     */
+    public SseEmitter subscribe(Long subscriberId, double latitude, double longitude, double radius) {
+        double clampedRadius = Math.min(radius, locationProperties.getMaxSearchRadius());
+        SseEmitter emitter = new SseEmitter(locationProperties.getSubscriptionTimeoutMs());
+        NearbySubscription subscription = new NearbySubscription(
+            UUID.randomUUID().toString(), subscriberId, latitude, longitude, clampedRadius, emitter);
+
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+
+        // Enrichment makes remote calls, so build the snapshot before
+        // registering and reconcile it with the store afterwards
+        List<NearbyUserDTO> snapshot = buddyEnrichmentService.enrich(currentLocationStore
+            .findWithinRadius(latitude, longitude, clampedRadius, subscriberId));
+
+        synchronized (subscription) {
+            register(subscription);
+            enqueue(subscription, SNAPSHOT_EVENT, snapshot);
+
+            Set<Long> snapshotIds = new HashSet<>();
+            snapshot.forEach(buddy -> snapshotIds.add(buddy.getUserId()));
+            for (NearbyCandidate candidate : currentLocationStore.findWithinRadius(
+                    latitude, longitude, clampedRadius, subscriberId)) {
+                Long userId = candidate.location().userId();
+                subscription.getVisibleUserIds().add(userId);
+                if (!snapshotIds.remove(userId)) {
+                    enqueue(subscription, DELTA_EVENT,
+                        delta(DeltaType.ENTERED, candidate.location(), candidate.distance()));
+                }
+            }
+            for (Long departedUserId : snapshotIds) {
+                enqueue(subscription, DELTA_EVENT,
+                    NearbyBuddyDelta.builder().type(DeltaType.LEFT).userId(departedUserId).build());
+            }
+        }
+
+        scheduleDrain(subscription);
+        log.debug("Nearby subscription {} opened for user {} with {} buddies",
+            subscription.getId(), subscriberId, snapshot.size());
+        return emitter;
+    }
+
+    /**
+     * Fan a user's position change out to the subscriptions around its old
+     * and new position
+     */
+    public void onLocationChanged(Optional<IndexedLocation> previous, IndexedLocation current) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        Set<String> affected = new HashSet<>();
+        collectSubscriptions(current.latitude(), current.longitude(), affected);
+        previous.ifPresent(location -> collectSubscriptions(location.latitude(), location.longitude(), affected));
+
+        for (String subscriptionId : affected) {
+            NearbySubscription subscription = subscriptions.get(subscriptionId);
+            if (subscription == null || subscription.getSubscriberId().equals(current.userId())) {
+                continue;
+            }
+
+            double distance = distanceCalculator.distance(
+                subscription.getLatitude(), subscription.getLongitude(),
+                current.latitude(), current.longitude());
+            boolean inside = distance <= subscription.getRadius();
+
+            synchronized (subscription) {
+                Set<Long> visible = subscription.getVisibleUserIds();
+                if (inside) {
+                    DeltaType type = visible.add(current.userId()) ? DeltaType.ENTERED : DeltaType.MOVED;
+                    enqueue(subscription, DELTA_EVENT, delta(type, current, distance));
+                } else if (visible.remove(current.userId())) {
+                    enqueue(subscription, DELTA_EVENT, NearbyBuddyDelta.builder()
+                        .type(DeltaType.LEFT)
+                        .userId(current.userId())
+                        .build());
+                } else {
+                    continue;
+                }
+            }
+            scheduleDrain(subscription);
+        }
+    }
+
+    /**
+     * Keep idle connections open through proxies and detect dead clients
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void sendHeartbeats() {
+        for (NearbySubscription subscription : subscriptions.values()) {
+            subscription.getOutbox().add(SseEmitter.event().comment("keepalive"));
+            scheduleDrain(subscription);
+        }
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    private void enqueue(NearbySubscription subscription, String eventName, Object payload) {
+        if (subscription.getOutbox().size() >= locationProperties.getSubscriptionMaxPendingEvents()) {
+            // The client cannot keep up; it can resubscribe for a fresh snapshot
+            log.warn("Closing nearby subscription {}: {} events pending",
+                subscription.getId(), subscription.getOutbox().size());
+            unsubscribe(subscription);
+            subscription.getEmitter().complete();
+            return;
+        }
+        subscription.getOutbox().add(SseEmitter.event().name(eventName).data(payload));
+    }
+
+    private void scheduleDrain(NearbySubscription subscription) {
+        if (!subscription.isClosed() && subscription.getDraining().compareAndSet(false, true)) {
+            subscriptionExecutor.execute(() -> drain(subscription));
+        }
+    }
+
+    private void drain(NearbySubscription subscription) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscription.isClosed() && (event = subscription.getOutbox().poll()) != null) {
+                subscription.getEmitter().send(event);
+            }
+        } catch (Exception e) {
+            log.debug("Nearby subscription {} failed: {}", subscription.getId(), e.getMessage());
+            unsubscribe(subscription);
+        } finally {
+            subscription.getDraining().set(false);
+        }
+
+        // Events queued after the last poll but before the flag was cleared
+        if (!subscription.getOutbox().isEmpty()) {
+            scheduleDrain(subscription);
+        }
+    }
+
+    private void register(NearbySubscription subscription) {
+        subscriptions.put(subscription.getId(), subscription);
+        forEachCell(subscription.getBounds(), cell -> subscriptionsByCell.compute(cell, (key, ids) -> {
+            Set<String> members = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            members.add(subscription.getId());
+            return members;
+        }));
+    }
+
+    private void unsubscribe(NearbySubscription subscription) {
+        if (subscriptions.remove(subscription.getId()) == null) {
+            return;
+        }
+        subscription.close();
+        subscription.getOutbox().clear();
+        forEachCell(subscription.getBounds(), cell -> subscriptionsByCell.computeIfPresent(cell, (key, ids) -> {
+            ids.remove(subscription.getId());
+            return ids.isEmpty() ? null : ids;
+        }));
+        log.debug("Nearby subscription {} closed", subscription.getId());
+    }
+
+    private void collectSubscriptions(double latitude, double longitude, Set<String> into) {
+        Set<String> ids = subscriptionsByCell.get(pack(cellIndex(latitude), cellIndex(longitude)));
+        if (ids != null) {
+            into.addAll(ids);
+        }
+    }
+
+    private NearbyBuddyDelta delta(DeltaType type, IndexedLocation location, double distance) {
+        return NearbyBuddyDelta.builder()
+            .type(type)
+            .userId(location.userId())
+            .latitude(location.latitude())
+            .longitude(location.longitude())
+            .distance(distance)
+            .lastUpdated(location.timestamp())
+            .build();
+    }
+
+    private void forEachCell(GeoBounds bounds, LongConsumer visitor) {
+        for (long row = cellIndex(bounds.minLatitude()); row <= cellIndex(bounds.maxLatitude()); row++) {
+            for (long col = cellIndex(bounds.minLongitude()); col <= cellIndex(bounds.maxLongitude()); col++) {
+                visitor.accept(pack(row, col));
+            }
+        }
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellSize);
+    }
+
+    private static long pack(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+}
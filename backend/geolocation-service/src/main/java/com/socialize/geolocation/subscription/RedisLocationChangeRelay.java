@@ -0,0 +1,85 @@
+package com.socialize.geolocation.subscription;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialize.geolocation.index.IndexedLocation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Broadcasts position changes over a Redis channel that every replica,
+ * this one included, subscribes to and applies to its own subscriptions.
+ *
+ * The listener container is private to this class, like the latest-location
+ * Kafka template, so it does not become the application's shared one.
+ */
+@Component
+@ConditionalOnProperty(name = "location.store", havingValue = "redis")
+@Slf4j
+public class RedisLocationChangeRelay implements LocationChangeRelay, MessageListener {
+
+    private static final String CHANNEL = "location:changes";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final NearbySubscriptionService nearbySubscriptionService;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public RedisLocationChangeRelay(
+            RedisConnectionFactory connectionFactory,
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            NearbySubscriptionService nearbySubscriptionService) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.nearbySubscriptionService = nearbySubscriptionService;
+        this.listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Override
+    public void publish(Optional<IndexedLocation> previous, IndexedLocation current) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL,
+                objectMapper.writeValueAsString(new LocationChange(previous.orElse(null), current)));
+        } catch (Exception e) {
+            // Subscribers on this replica at least still see the change
+            log.error("Failed to broadcast location change of user {}: {}", current.userId(), e.getMessage());
+            nearbySubscriptionService.onLocationChanged(previous, current);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            LocationChange change = objectMapper.readValue(message.getBody(), LocationChange.class);
+            nearbySubscriptionService.onLocationChanged(Optional.ofNullable(change.previous()), change.current());
+        } catch (Exception e) {
+            log.error("Failed to apply broadcast location change: {}", e.getMessage());
+        }
+    }
+
+    record LocationChange(IndexedLocation previous, IndexedLocation current) {}
+}
@@ -0,0 +1,71 @@
+package com.socialize.geolocation.websocket;
+
+import com.socialize.geolocation.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates a location stream once, at the handshake.
+ *
+ * The token comes from the Authorization header or, for browser clients
+ * that cannot set headers on a WebSocket, the {@code access_token} query
+ * parameter. Its subject must be the numeric user ID.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    private final JwtUtil jwtUtil;
+
+    @Override
+    public boolean beforeHandshake(
+            ServerHttpRequest request,
+            ServerHttpResponse response,
+            WebSocketHandler wsHandler,
+            Map<String, Object> attributes) {
+
+        String token = extractToken(request);
+        if (token != null) {
+            try {
+                Long userId = Long.parseLong(jwtUtil.extractUsername(token));
+                attributes.put(USER_ID_ATTRIBUTE, userId);
+                return true;
+            } catch (Exception e) {
+                log.debug("Rejecting location stream handshake: {}", e.getMessage());
+            }
+        }
+
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(
+            ServerHttpRequest request,
+            ServerHttpResponse response,
+            WebSocketHandler wsHandler,
+            Exception exception) {
+    }
+
+    private String extractToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build()
+            .getQueryParams().getFirst("access_token");
+    }
+}
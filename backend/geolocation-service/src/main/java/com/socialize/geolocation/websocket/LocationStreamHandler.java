@@ -0,0 +1,192 @@
+package com.socialize.geolocation.websocket;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.exception.IngestOverloadedException;
+import com.socialize.geolocation.model.dto.LocationDTO;
+import com.socialize.geolocation.model.dto.LocationUpdateRequest;
+import com.socialize.geolocation.service.LocationService;
+import com.socialize.geolocation.websocket.PingFrameCodec.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-lived binary ingest channel for high-frequency clients.
+ *
+ * Each frame's pings go through {@link LocationService#updateLocation},
+ * so they are filtered, queued and indexed exactly like JSON updates.
+ * Flow control is per connection: frames are handled one at a time, a
+ * token bucket caps the sustained ping rate (the newest pings of a frame
+ * win when it is exceeded), and replies go through a bounded send buffer
+ * that closes connections which stop reading. Every frame is answered
+ * with its status and the next-update hints.
+ */
+@Component
+@Slf4j
+public class LocationStreamHandler extends BinaryWebSocketHandler {
+
+    private final LocationService locationService;
+    private final LocationProperties locationProperties;
+
+    private final Map<String, StreamConnection> connections = new ConcurrentHashMap<>();
+    private final Counter acceptedCounter;
+    private final Counter throttledCounter;
+    private final Counter invalidCounter;
+
+    public LocationStreamHandler(
+            LocationService locationService,
+            LocationProperties locationProperties,
+            MeterRegistry meterRegistry) {
+        this.locationService = locationService;
+        this.locationProperties = locationProperties;
+
+        Gauge.builder("location.stream.connections", connections, Map::size)
+            .description("Open location stream connections")
+            .register(meterRegistry);
+        this.acceptedCounter = meterRegistry.counter("location.stream.accepted");
+        this.throttledCounter = meterRegistry.counter("location.stream.throttled");
+        this.invalidCounter = meterRegistry.counter("location.stream.invalid");
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Long userId = (Long) session.getAttributes().get(JwtHandshakeInterceptor.USER_ID_ATTRIBUTE);
+        WebSocketSession outbound = new ConcurrentWebSocketSessionDecorator(session,
+            locationProperties.getStreamSendTimeLimitMs().intValue(),
+            locationProperties.getStreamSendBufferSize());
+
+        connections.put(session.getId(), new StreamConnection(userId, outbound,
+            locationProperties.getStreamPingsPerSecond(), locationProperties.getStreamBurst()));
+        log.debug("Location stream opened for user {}", userId);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        StreamConnection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+
+        List<LocationUpdateRequest> pings;
+        try {
+            pings = PingFrameCodec.decode(message.getPayload());
+        } catch (IllegalArgumentException e) {
+            invalidCounter.increment();
+            session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+            return;
+        }
+
+        int allowed = connection.acquire(pings.size());
+        Status status = allowed < pings.size() ? Status.THROTTLED : Status.OK;
+        throttledCounter.increment(pings.size() - allowed);
+
+        int accepted = 0;
+        LocationDTO latest = null;
+        for (LocationUpdateRequest ping : pings.subList(pings.size() - allowed, pings.size())) {
+            if (!PingFrameCodec.isValid(ping)) {
+                invalidCounter.increment();
+                status = Status.INVALID;
+                continue;
+            }
+            try {
+                latest = locationService.updateLocation(connection.userId(), ping);
+                accepted++;
+            } catch (IngestOverloadedException e) {
+                status = Status.OVERLOADED;
+                break;
+            }
+        }
+        acceptedCounter.increment(accepted);
+
+        connection.outbound().sendMessage(new BinaryMessage(reply(status, accepted, latest, connection)));
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Location stream {} failed: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        connections.remove(session.getId());
+    }
+
+    private ByteBuffer reply(Status status, int accepted, LocationDTO latest, StreamConnection connection) {
+        int interval;
+        double minDisplacement;
+        if (latest != null && latest.getNextUpdateIntervalSeconds() != null) {
+            interval = latest.getNextUpdateIntervalSeconds();
+            minDisplacement = latest.getMinDisplacementMeters();
+        } else {
+            interval = status == Status.OVERLOADED
+                ? locationProperties.getMaxUpdateInterval()
+                : locationProperties.getUpdateInterval();
+            minDisplacement = locationProperties.getThinningToleranceMeters();
+        }
+
+        // Never invite a client to send faster than its bucket refills
+        interval = Math.max(interval, connection.minIntervalSeconds());
+        return PingFrameCodec.encodeReply(status, accepted, interval, minDisplacement);
+    }
+
+    /**
+     * Per-connection state: the authenticated user, the buffered sender and
+     * a token bucket refilled at the configured ping rate
+     */
+    private static final class StreamConnection {
+
+        private final Long userId;
+        private final WebSocketSession outbound;
+        private final double ratePerSecond;
+        private final double burst;
+
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        StreamConnection(Long userId, WebSocketSession outbound, double ratePerSecond, int burst) {
+            this.userId = userId;
+            this.outbound = outbound;
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        Long userId() {
+            return userId;
+        }
+
+        WebSocketSession outbound() {
+            return outbound;
+        }
+
+        int minIntervalSeconds() {
+            return (int) Math.ceil(1.0 / ratePerSecond);
+        }
+
+        /**
+         * Take up to the requested number of tokens, returning how many were granted
+         */
+        synchronized int acquire(int requested) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * ratePerSecond);
+            refilledAt = now;
+
+            int granted = (int) Math.min(requested, Math.floor(tokens));
+            tokens -= granted;
+            return granted;
+        }
+    }
+}
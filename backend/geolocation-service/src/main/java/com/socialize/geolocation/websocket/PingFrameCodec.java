@@ -0,0 +1,107 @@
+package com.socialize.geolocation.websocket;
+
+import com.socialize.geolocation.model.dto.LocationUpdateRequest;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary frames of the location stream.
+ *
+ * A client frame carries one or more 40-byte pings back to back,
+ * big-endian:
+ * <pre>
+ *   0  double  latitude
+ *   8  double  longitude
+ *  16  long    reading time, epoch milliseconds (0 = time of receipt)
+ *  24  float   accuracy in meters
+ *  28  float   altitude in meters, NaN when unknown
+ *  32  float   speed in m/s, NaN when unknown
+ *  36  float   heading in degrees, NaN when unknown
+ * </pre>
+ * The server answers every frame with a 13-byte reply:
+ * <pre>
+ *   0  byte    status, see {@link Status}
+ *   1  int     pings accepted from the frame
+ *   5  int     seconds until the next update
+ *   9  float   meters of movement worth reporting early
+ * </pre>
+ */
+public final class PingFrameCodec {
+
+    public static final int PING_SIZE = 40;
+    public static final int REPLY_SIZE = 13;
+
+    public enum Status {
+        OK,
+        THROTTLED,
+        OVERLOADED,
+        INVALID
+    }
+
+    private PingFrameCodec() {
+    }
+
+    /**
+     * Pings in a frame, in frame order
+     *
+     * @throws IllegalArgumentException when the frame is not a whole number of pings
+     */
+    public static List<LocationUpdateRequest> decode(ByteBuffer frame) {
+        if (frame.remaining() == 0 || frame.remaining() % PING_SIZE != 0) {
+            throw new IllegalArgumentException("Frame of " + frame.remaining()
+                + " bytes is not a whole number of " + PING_SIZE + "-byte pings");
+        }
+
+        List<LocationUpdateRequest> pings = new ArrayList<>(frame.remaining() / PING_SIZE);
+        while (frame.hasRemaining()) {
+            double latitude = frame.getDouble();
+            double longitude = frame.getDouble();
+            long timestampMillis = frame.getLong();
+            float accuracy = frame.getFloat();
+            float altitude = frame.getFloat();
+            float speed = frame.getFloat();
+            float heading = frame.getFloat();
+
+            pings.add(LocationUpdateRequest.builder()
+                .latitude(latitude)
+                .longitude(longitude)
+                .accuracy(orNull(accuracy))
+                .altitude(orNull(altitude))
+                .speed(orNull(speed))
+                .heading(orNull(heading))
+                .timestamp(timestampMillis != 0
+                    ? LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault())
+                    : null)
+                .build());
+        }
+        return pings;
+    }
+
+    public static ByteBuffer encodeReply(
+            Status status, int accepted, int nextUpdateIntervalSeconds, double minDisplacementMeters) {
+        return ByteBuffer.allocate(REPLY_SIZE)
+            .put((byte) status.ordinal())
+            .putInt(accepted)
+            .putInt(nextUpdateIntervalSeconds)
+            .putFloat((float) minDisplacementMeters)
+            .flip();
+    }
+
+    /**
+     * Whether a decoded ping passes the same checks as a JSON update
+     */
+    public static boolean isValid(LocationUpdateRequest ping) {
+        return ping.getLatitude() >= -90.0 && ping.getLatitude() <= 90.0
+            && ping.getLongitude() >= -180.0 && ping.getLongitude() <= 180.0
+            && ping.getAccuracy() != null && ping.getAccuracy() >= 0.0;
+    }
+
+    private static Double orNull(float value) {
+        return Float.isNaN(value) ? null : (double) value;
+    }
+}
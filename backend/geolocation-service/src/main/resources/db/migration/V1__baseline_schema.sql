@@ -0,0 +1,51 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update).
+-- IF NOT EXISTS keeps this a no-op on databases that already have it.
+
+CREATE TABLE IF NOT EXISTS user_locations (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id       BIGINT       NOT NULL,
+    latitude      DOUBLE       NOT NULL,
+    longitude     DOUBLE       NOT NULL,
+    location_point POINT       NOT NULL SRID 4326,
+    accuracy      DOUBLE,
+    altitude      DOUBLE,
+    speed         DOUBLE,
+    heading       DOUBLE,
+    is_current    BIT(1)       NOT NULL,
+    timestamp     DATETIME(6)  NOT NULL,
+    device_id     VARCHAR(100),
+    provider      VARCHAR(50),
+    PRIMARY KEY (id),
+    INDEX idx_user_id (user_id),
+    INDEX idx_is_current (is_current),
+    INDEX idx_user_current (user_id, is_current),
+    INDEX idx_timestamp (timestamp)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS location_history (
+    id             BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id        BIGINT      NOT NULL,
+    latitude       DOUBLE      NOT NULL,
+    longitude      DOUBLE      NOT NULL,
+    location_point POINT       NOT NULL SRID 4326,
+    accuracy       DOUBLE      NOT NULL,
+    timestamp      DATETIME(6) NOT NULL,
+    activity_type  VARCHAR(50),
+    PRIMARY KEY (id),
+    INDEX idx_history_user_id (user_id),
+    INDEX idx_history_timestamp (timestamp),
+    INDEX idx_history_user_time (user_id, timestamp)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS geofences (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id           BIGINT       NOT NULL,
+    name              VARCHAR(100) NOT NULL,
+    center_point      POINT        NOT NULL SRID 4326,
+    radius            DOUBLE       NOT NULL,
+    type              VARCHAR(20),
+    is_active         BIT(1)       NOT NULL,
+    created_at        DATETIME(6)  NOT NULL,
+    last_triggered_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
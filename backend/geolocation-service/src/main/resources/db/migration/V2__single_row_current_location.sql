@@ -0,0 +1,19 @@
+-- user_locations holds exactly one row per user; history lives only in
+-- location_history. Keep the newest row of each user and key the table
+-- on user_id so writes can upsert.
+
+DELETE ul
+FROM user_locations ul
+LEFT JOIN (
+    SELECT MAX(id) AS keep_id
+    FROM user_locations
+    GROUP BY user_id
+) newest ON newest.keep_id = ul.id
+WHERE newest.keep_id IS NULL;
+
+ALTER TABLE user_locations
+    DROP INDEX idx_is_current,
+    DROP INDEX idx_user_current,
+    DROP INDEX idx_user_id,
+    DROP COLUMN is_current,
+    ADD CONSTRAINT uk_user_locations_user_id UNIQUE (user_id);
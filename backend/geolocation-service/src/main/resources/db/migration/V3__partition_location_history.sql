@@ -0,0 +1,35 @@
+-- Range-partition location_history by day so retention drops whole
+-- partitions instead of running large DELETEs.
+--
+-- MySQL requires the partitioning column in every unique key, so the
+-- primary key becomes (id, timestamp). Everything starts in pmax;
+-- LocationHistoryPartitionManager splits it into daily partitions on
+-- startup and keeps creating them ahead of time.
+
+CREATE TABLE location_history_partitioned (
+    id             BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id        BIGINT      NOT NULL,
+    latitude       DOUBLE      NOT NULL,
+    longitude      DOUBLE      NOT NULL,
+    location_point POINT       NOT NULL SRID 4326,
+    accuracy       DOUBLE      NOT NULL,
+    timestamp      DATETIME(6) NOT NULL,
+    activity_type  VARCHAR(50),
+    PRIMARY KEY (id, timestamp),
+    INDEX idx_history_timestamp (timestamp),
+    INDEX idx_history_user_time (user_id, timestamp)
+) ENGINE = InnoDB
+PARTITION BY RANGE (TO_DAYS(timestamp)) (
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
+INSERT INTO location_history_partitioned
+    (id, user_id, latitude, longitude, location_point, accuracy, timestamp, activity_type)
+SELECT id, user_id, latitude, longitude, location_point, accuracy, timestamp, activity_type
+FROM location_history;
+
+RENAME TABLE
+    location_history TO location_history_unpartitioned,
+    location_history_partitioned TO location_history;
+
+DROP TABLE location_history_unpartitioned;
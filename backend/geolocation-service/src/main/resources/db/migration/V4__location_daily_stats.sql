@@ -0,0 +1,13 @@
+-- Per-user, per-day rollup maintained at ingest time so summaries and
+-- statistics read a handful of rows instead of scanning history.
+
+CREATE TABLE location_daily_stats (
+    user_id         BIGINT NOT NULL,
+    stat_date       DATE   NOT NULL,
+    distance_meters DOUBLE NOT NULL,
+    update_count    INT    NOT NULL,
+    accuracy_sum    DOUBLE NOT NULL,
+    accuracy_min    DOUBLE NOT NULL,
+    accuracy_max    DOUBLE NOT NULL,
+    PRIMARY KEY (user_id, stat_date)
+) ENGINE = InnoDB;
@@ -0,0 +1,9 @@
+-- SPATIAL indexes let MBRContains bounding-box filters use an R-tree
+-- instead of scanning every row. Both columns are NOT NULL with SRID 4326,
+-- which MySQL requires for the optimizer to use the index.
+
+ALTER TABLE user_locations
+    ADD SPATIAL INDEX idx_user_locations_point (location_point);
+
+ALTER TABLE geofences
+    ADD SPATIAL INDEX idx_geofences_center_point (center_point);
@@ -0,0 +1,12 @@
+-- Buddies a user has asked to be alerted about when they come within
+-- threshold_meters. Loaded into memory by the proximity matcher.
+
+CREATE TABLE proximity_alerts (
+    id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id          BIGINT   NOT NULL,
+    buddy_id         BIGINT   NOT NULL,
+    threshold_meters DOUBLE   NOT NULL,
+    created_at       DATETIME NOT NULL,
+    UNIQUE KEY uk_proximity_alerts_pair (user_id, buddy_id),
+    INDEX idx_proximity_alerts_buddy (buddy_id)
+) ENGINE = InnoDB;
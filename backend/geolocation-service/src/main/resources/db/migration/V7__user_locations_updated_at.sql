@@ -0,0 +1,7 @@
+-- When each current-location row last changed, so a restarting instance
+-- can replay just the rows written after its index snapshot.
+
+ALTER TABLE user_locations
+    ADD COLUMN updated_at DATETIME(6) NOT NULL
+        DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    ADD INDEX idx_user_locations_updated_at (updated_at);
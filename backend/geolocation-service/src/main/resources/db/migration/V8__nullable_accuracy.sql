@@ -0,0 +1,13 @@
+-- Readings may arrive without an accuracy (e.g. binary stream frames with
+-- no fix quality). History keeps them with a NULL accuracy and the daily
+-- rollup averages accuracy over the readings that carried one.
+
+ALTER TABLE location_history
+    MODIFY accuracy DOUBLE NULL;
+
+ALTER TABLE location_daily_stats
+    ADD COLUMN accuracy_count INT NOT NULL DEFAULT 0 AFTER update_count,
+    MODIFY accuracy_min DOUBLE NULL,
+    MODIFY accuracy_max DOUBLE NULL;
+
+UPDATE location_daily_stats SET accuracy_count = update_count;
@@ -0,0 +1,5 @@
+-- EVENT geofences fire for every user who crosses them. Until now any user
+-- could create one through the public API, so existing rows are untrusted
+-- and are switched off; the API no longer accepts the type.
+
+UPDATE geofences SET is_active = b'0' WHERE type = 'EVENT';
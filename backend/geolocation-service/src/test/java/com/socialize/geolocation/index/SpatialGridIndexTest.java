@@ -0,0 +1,128 @@
+package com.socialize.geolocation.index;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.service.DistanceCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Nearest-neighbour search over 0.01 degree cells
+ */
+class SpatialGridIndexTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private DistanceCalculator distanceCalculator;
+    private SpatialGridIndex index;
+
+    @BeforeEach
+    void setUp() {
+        LocationProperties properties = new LocationProperties();
+        properties.setGridCellSizeDegrees(0.01);
+        distanceCalculator = spy(new DistanceCalculator(properties));
+        index = new SpatialGridIndex(distanceCalculator, properties);
+    }
+
+    @Test
+    void matchesBruteForceNearest() {
+        Random random = new Random(42);
+        List<IndexedLocation> locations = new ArrayList<>();
+        for (long userId = 1; userId <= 500; userId++) {
+            IndexedLocation location = location(userId,
+                48.80 + random.nextDouble() * 0.1, 2.30 + random.nextDouble() * 0.1);
+            locations.add(location);
+            index.upsert(location);
+        }
+
+        for (int probe = 0; probe < 20; probe++) {
+            double latitude = 48.80 + random.nextDouble() * 0.1;
+            double longitude = 2.30 + random.nextDouble() * 0.1;
+            List<Long> expected = locations.stream()
+                .filter(location -> !location.userId().equals(1L))
+                .map(location -> new NearbyCandidate(location, distanceCalculator.distance(
+                    latitude, longitude, location.latitude(), location.longitude())))
+                .filter(candidate -> candidate.distance() <= 3000)
+                .sorted(Comparator.comparingDouble(NearbyCandidate::distance))
+                .limit(7)
+                .map(candidate -> candidate.location().userId())
+                .toList();
+
+            assertThat(index.findNearest(latitude, longitude, 7, 3000, 1L))
+                .extracting(candidate -> candidate.location().userId())
+                .containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void keepsSearchingWhileNeighbourCellsMayHoldSomeoneCloser() {
+        // Probe near the top edge of its cell; the far side of the own cell
+        // is further away than the start of the next row
+        index.upsert(location(1L, 0.0005, 0.005));
+        index.upsert(location(2L, 0.0105, 0.005));
+
+        List<NearbyCandidate> nearest = index.findNearest(0.0095, 0.005, 1, 5000, null);
+
+        assertThat(nearest).extracting(candidate -> candidate.location().userId()).containsExactly(2L);
+    }
+
+    @Test
+    void stopsOnceKUsersAreCloserThanAnyUnvisitedCell() {
+        index.upsert(location(1L, 0.005, 0.0051));
+        index.upsert(location(2L, 0.0451, 0.005));
+
+        List<NearbyCandidate> nearest = index.findNearest(0.005, 0.005, 1, 10000, null);
+
+        assertThat(nearest).extracting(candidate -> candidate.location().userId()).containsExactly(1L);
+        verify(distanceCalculator, never()).distance(anyDouble(), anyDouble(), eq(0.0451), anyDouble());
+    }
+
+    @Test
+    void stopsAtTheRadiusEvenWithFewerThanKUsers() {
+        index.upsert(location(1L, 0.005, 0.006));
+        index.upsert(location(2L, 0.2051, 0.005));
+
+        List<NearbyCandidate> nearest = index.findNearest(0.005, 0.005, 5, 1000, null);
+
+        assertThat(nearest).extracting(candidate -> candidate.location().userId()).containsExactly(1L);
+        verify(distanceCalculator, never()).distance(anyDouble(), anyDouble(), eq(0.2051), anyDouble());
+    }
+
+    @Test
+    void dropsUsersBeyondTheRadiusInVisitedCells() {
+        // Same cell as the probe, but further than the radius allows
+        index.upsert(location(1L, 0.0001, 0.0001));
+
+        assertThat(index.findNearest(0.0099, 0.0099, 3, 100, null)).isEmpty();
+    }
+
+    @Test
+    void returnsNearestFirstWithoutTheExcludedUser() {
+        index.upsert(location(1L, 0.0050, 0.0050));
+        index.upsert(location(2L, 0.0052, 0.0050));
+        index.upsert(location(3L, 0.0150, 0.0050));
+        index.upsert(location(4L, 0.0051, 0.0050));
+
+        List<NearbyCandidate> nearest = index.findNearest(0.0050, 0.0050, 2, 5000, 1L);
+
+        assertThat(nearest).extracting(candidate -> candidate.location().userId()).containsExactly(4L, 2L);
+        assertThat(nearest.get(0).distance()).isLessThan(nearest.get(1).distance());
+        assertThat(index.findNearest(0.0050, 0.0050, 0, 5000, null)).isEmpty();
+    }
+
+    private IndexedLocation location(Long userId, double latitude, double longitude) {
+        return new IndexedLocation(userId, latitude, longitude, 10.0, now);
+    }
+}
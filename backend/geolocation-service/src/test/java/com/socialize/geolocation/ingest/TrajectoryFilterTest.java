@@ -0,0 +1,179 @@
+package com.socialize.geolocation.ingest;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.service.DistanceCalculator;
+import com.socialize.geolocation.store.LocalLastPingStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Defaults: 100 m accuracy threshold, 25 m tolerance, 300 s maximum gap,
+ * 0.5 m/s stationary speed
+ */
+class TrajectoryFilterTest {
+
+    private static final double LATITUDE = 48.85;
+    private static final double LONGITUDE = 2.35;
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private MeterRegistry meterRegistry;
+    private TrajectoryFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        LocationProperties properties = new LocationProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new TrajectoryFilter(new DistanceCalculator(properties), properties,
+            new LocalLastPingStore(), meterRegistry);
+    }
+
+    @Test
+    void acceptsInaccurateReadingOnlyWithoutAPosition() {
+        assertThat(filter.isAccurateEnough(ping(1L, 0, 0, 0, 500.0), false)).isTrue();
+        assertThat(filter.isAccurateEnough(ping(1L, 0, 0, 0, null), true)).isTrue();
+        assertThat(filter.isAccurateEnough(ping(1L, 0, 0, 0, 100.0), true)).isTrue();
+        assertThat(filter.isAccurateEnough(ping(1L, 0, 0, 0, 100.5), true)).isFalse();
+        assertThat(meterRegistry.counter("location.ingest.inaccurate").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void storesFirstPingOfAUser() {
+        LocationPing first = ping(1L, 0, 0, 0, 10.0);
+
+        assertThat(filter.thin(List.of(first))).containsExactly(first);
+    }
+
+    @Test
+    void thinsStationaryPingsWithinTolerance() {
+        anchor(ping(1L, 0, 0, 0, 10.0));
+
+        LocationPing jitter = ping(1L, 30, 10, 5, 10.0);
+
+        assertThat(filter.thin(List.of(jitter))).isEmpty();
+        assertThat(meterRegistry.counter("location.ingest.thinned").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void storesPingsBeyondTolerance() {
+        anchor(ping(1L, 0, 0, 0, 10.0));
+
+        LocationPing moved = ping(1L, 30, 40, 0, 10.0);
+
+        assertThat(filter.thin(List.of(moved))).containsExactly(moved);
+    }
+
+    @Test
+    void widensToleranceToThePingsAccuracy() {
+        anchor(ping(1L, 0, 0, 0, 10.0));
+
+        // 40 m away, but the reading itself is only good to 50 m
+        assertThat(filter.thin(List.of(ping(1L, 30, 40, 0, 50.0)))).isEmpty();
+    }
+
+    @Test
+    void storesAPointOnceTheMaximumGapHasPassed() {
+        anchor(ping(1L, 0, 0, 0, 10.0));
+
+        LocationPing still = ping(1L, 300, 0, 0, 10.0);
+
+        assertThat(filter.thin(List.of(ping(1L, 299, 0, 0, 10.0)))).isEmpty();
+        assertThat(filter.thin(List.of(still))).containsExactly(still);
+    }
+
+    @Test
+    void thinsPingsOnTheDeadReckonedPath() {
+        // Heading due north at 10 m/s
+        anchor(moving(1L, 0, 0, 10.0, 0.0));
+
+        LocationPing onPath = moving(1L, 30, 300, 10.0, 0.0);
+        LocationPing stopped = moving(1L, 30, 0, 0.0, 0.0);
+
+        assertThat(filter.thin(List.of(onPath))).isEmpty();
+        // Not moving is a surprise for a user predicted 300 m further on
+        assertThat(filter.thin(List.of(stopped))).containsExactly(stopped);
+    }
+
+    @Test
+    void treatsSlowAnchorsAsStationary() {
+        anchor(moving(1L, 0, 0, 0.4, 0.0));
+
+        // Below walking pace the anchor is assumed to stay put
+        assertThat(filter.thin(List.of(moving(1L, 60, 0, 0.4, 0.0)))).isEmpty();
+    }
+
+    @Test
+    void storesLateReadingsWithoutMovingTheAnchor() {
+        anchor(ping(1L, 100, 0, 0, 10.0));
+
+        LocationPing late = ping(1L, 50, 0, 0, 10.0);
+        assertThat(filter.thin(List.of(late))).containsExactly(late);
+        filter.advance(List.of(late));
+
+        // Still measured from the newer anchor
+        assertThat(filter.thin(List.of(ping(1L, 150, 0, 0, 10.0)))).isEmpty();
+    }
+
+    @Test
+    void usesPointsStoredEarlierInTheSameBatch() {
+        LocationPing first = ping(1L, 0, 0, 0, 10.0);
+        LocationPing jitter = ping(1L, 10, 5, 0, 10.0);
+        LocationPing moved = ping(1L, 20, 100, 0, 10.0);
+        LocationPing other = ping(2L, 5, 0, 0, 10.0);
+
+        // Out of order on input, in time order on output
+        assertThat(filter.thin(List.of(moved, other, jitter, first))).containsExactly(first, other, moved);
+    }
+
+    @Test
+    void leavesAnchorsAloneUntilAdvanced() {
+        anchor(ping(1L, 0, 0, 0, 10.0));
+        LocationPing moved = ping(1L, 30, 100, 0, 10.0);
+
+        assertThat(filter.thin(List.of(moved))).containsExactly(moved);
+        // The batch was not written, so the old anchor still applies
+        assertThat(filter.thin(List.of(ping(1L, 40, 100, 0, 10.0)))).hasSize(1);
+
+        filter.advance(List.of(moved));
+        assertThat(filter.thin(List.of(ping(1L, 40, 100, 0, 10.0)))).isEmpty();
+    }
+
+    @Test
+    void forgetsAnchorsOlderThanTheEvictionDay() {
+        anchor(ping(1L, 0, 0, 0, 10.0));
+
+        filter.evictBefore(start.toLocalDate().plusDays(1));
+
+        LocationPing again = ping(1L, 30, 0, 0, 10.0);
+        assertThat(filter.thin(List.of(again))).containsExactly(again);
+    }
+
+    private void anchor(LocationPing ping) {
+        filter.advance(filter.thin(List.of(ping)));
+    }
+
+    /**
+     * A ping {@code seconds} after the start, offset north and east of the
+     * reference point by the given meters
+     */
+    private LocationPing ping(Long userId, int seconds, double northMeters, double eastMeters, Double accuracy) {
+        return new LocationPing(userId,
+            LATITUDE + northMeters / GeoBounds.METERS_PER_DEGREE,
+            LONGITUDE + eastMeters / (GeoBounds.METERS_PER_DEGREE * Math.cos(Math.toRadians(LATITUDE))),
+            accuracy, null, null, null, null, null, start.plusSeconds(seconds));
+    }
+
+    private LocationPing moving(Long userId, int seconds, double northMeters, double speed, double heading) {
+        LocationPing ping = ping(userId, seconds, northMeters, 0, 10.0);
+        return new LocationPing(userId, ping.latitude(), ping.longitude(), ping.accuracy(), null,
+            speed, heading, null, null, ping.timestamp());
+    }
+}
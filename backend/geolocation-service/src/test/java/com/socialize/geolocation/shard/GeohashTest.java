@@ -0,0 +1,63 @@
+package com.socialize.geolocation.shard;
+
+import com.socialize.geolocation.index.GeoBounds;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeohashTest {
+
+    @Test
+    void encodesKnownPoints() {
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(42.6, -5.6, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(-25.382708, -49.265506, 7)).isEqualTo("6gkzwgj");
+    }
+
+    @Test
+    void shorterHashIsPrefixOfLongerOne() {
+        String full = Geohash.encode(48.8566, 2.3522, 9);
+
+        for (int precision = 1; precision < 9; precision++) {
+            assertThat(full).startsWith(Geohash.encode(48.8566, 2.3522, precision));
+        }
+    }
+
+    @Test
+    void cellSizeHalvesAlternatelyPerBit() {
+        assertThat(Geohash.cellHeight(1)).isEqualTo(45.0);
+        assertThat(Geohash.cellWidth(1)).isEqualTo(45.0);
+        assertThat(Geohash.cellHeight(3)).isEqualTo(180.0 / 128);
+        assertThat(Geohash.cellWidth(3)).isEqualTo(360.0 / 256);
+    }
+
+    @Test
+    void coveringOfBoxInsideOneCellIsThatCell() {
+        GeoBounds bounds = GeoBounds.around(42.6, -5.6, 100);
+
+        assertThat(Geohash.covering(bounds, 3)).containsExactly(Geohash.encode(42.6, -5.6, 3));
+    }
+
+    @Test
+    void coveringOfBoxAcrossCellEdgeHasBothCells() {
+        GeoBounds bounds = new GeoBounds(10.0, -1.0, 11.0, 1.0);
+
+        assertThat(Geohash.covering(bounds, 1)).containsExactlyInAnyOrder("e", "s");
+    }
+
+    @Test
+    void coveringContainsTheCellOfEveryPointInTheBox() {
+        GeoBounds bounds = new GeoBounds(51.3, -0.6, 51.8, 0.4);
+        int precision = 4;
+        Set<String> cells = Geohash.covering(bounds, precision);
+
+        for (double lat = bounds.minLatitude(); lat <= bounds.maxLatitude(); lat += 0.01) {
+            for (double lon = bounds.minLongitude(); lon <= bounds.maxLongitude(); lon += 0.01) {
+                assertThat(cells).contains(Geohash.encode(lat, lon, precision));
+            }
+        }
+        assertThat(cells).contains(Geohash.encode(bounds.maxLatitude(), bounds.maxLongitude(), precision));
+    }
+}
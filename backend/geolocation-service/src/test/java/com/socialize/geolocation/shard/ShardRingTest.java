@@ -0,0 +1,160 @@
+package com.socialize.geolocation.shard;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardRingTest {
+
+    private static final String SERVICE_ID = "geolocation-service";
+
+    private final ServiceInstance first = instance("geo-1");
+    private final ServiceInstance second = instance("geo-2");
+
+    private DiscoveryClient discoveryClient;
+    private LocationProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances(SERVICE_ID)).thenReturn(List.of(first, second));
+
+        properties = new LocationProperties();
+        properties.setShardingEnabled(true);
+        properties.setShardPrecision(3);
+        properties.setShardVirtualNodes(64);
+    }
+
+    @Test
+    void ownsEverythingWhenShardingIsDisabled() {
+        properties.setShardingEnabled(false);
+        ShardRing ring = ringFor("geo-1");
+
+        assertThat(ring.owns(48.85, 2.35)).isTrue();
+        assertThat(ring.remoteOwnerOf(-33.87, 151.21)).isEmpty();
+        assertThat(ring.ownersOf(new GeoBounds(40.0, -10.0, 60.0, 20.0)))
+            .isEqualTo(new ShardRing.Owners(true, List.of()));
+    }
+
+    @Test
+    void ownsEverythingBeforeTheRingIsBuilt() {
+        ShardRing ring = new ShardRing(discoveryClient, registration("geo-1"), properties, SERVICE_ID);
+
+        assertThat(ring.owns(48.85, 2.35)).isTrue();
+    }
+
+    @Test
+    void everyRegionHasExactlyOneOwner() {
+        ShardRing firstRing = ringFor("geo-1");
+        ShardRing secondRing = ringFor("geo-2");
+
+        int ownedByFirst = 0;
+        int regions = 0;
+        for (double lat = -80.0; lat <= 80.0; lat += 5.0) {
+            for (double lon = -175.0; lon <= 175.0; lon += 5.0) {
+                boolean firstOwns = firstRing.owns(lat, lon);
+                assertThat(secondRing.owns(lat, lon)).isNotEqualTo(firstOwns);
+                assertThat(firstRing.remoteOwnerOf(lat, lon).map(ServiceInstance::getInstanceId))
+                    .isEqualTo(firstOwns ? Optional.empty() : Optional.of("geo-2"));
+                ownedByFirst += firstOwns ? 1 : 0;
+                regions++;
+            }
+        }
+
+        // Virtual nodes spread the regions over both instances
+        assertThat(ownedByFirst).isBetween(regions / 4, regions * 3 / 4);
+    }
+
+    @Test
+    void pointsInOneRegionShareAnOwner() {
+        ShardRing ring = ringFor("geo-1");
+        String region = ring.regionOf(48.85, 2.35);
+
+        assertThat(ring.regionOf(48.86, 2.36)).isEqualTo(region);
+        assertThat(ring.owns(48.86, 2.36)).isEqualTo(ring.owns(48.85, 2.35));
+    }
+
+    @Test
+    void ownersOfBoundsMatchTheOwnersOfTheCoveredRegions() {
+        ShardRing ring = ringFor("geo-1");
+        GeoBounds bounds = new GeoBounds(35.0, -10.0, 60.0, 30.0);
+        Set<String> regions = Geohash.covering(bounds, properties.getShardPrecision());
+
+        boolean anyLocal = false;
+        boolean anyRemote = false;
+        for (String region : regions) {
+            // The centre of a region's cell lies in that region
+            double[] centre = centreOf(region, bounds, properties.getShardPrecision());
+            boolean local = ring.owns(centre[0], centre[1]);
+            anyLocal |= local;
+            anyRemote |= !local;
+        }
+
+        ShardRing.Owners owners = ring.ownersOf(bounds);
+        assertThat(owners.local()).isEqualTo(anyLocal);
+        assertThat(owners.remote()).extracting(ServiceInstance::getInstanceId)
+            .containsExactlyElementsOf(anyRemote ? List.of("geo-2") : List.of());
+    }
+
+    @Test
+    void addsItselfWhenTheRegistryDoesNotListItYet() {
+        when(discoveryClient.getInstances(SERVICE_ID)).thenReturn(List.of(second));
+        ShardRing late = ringFor("geo-1");
+        when(discoveryClient.getInstances(SERVICE_ID)).thenReturn(List.of(first, second));
+        ShardRing complete = ringFor("geo-1");
+
+        for (double lat = -60.0; lat <= 60.0; lat += 10.0) {
+            for (double lon = -170.0; lon <= 170.0; lon += 10.0) {
+                assertThat(late.owns(lat, lon)).isEqualTo(complete.owns(lat, lon));
+            }
+        }
+    }
+
+    private ShardRing ringFor(String instanceId) {
+        ShardRing ring = new ShardRing(discoveryClient, registration(instanceId), properties, SERVICE_ID);
+        ring.refresh();
+        return ring;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<Registration> registration(String instanceId) {
+        Registration self = mock(Registration.class);
+        when(self.getInstanceId()).thenReturn(instanceId);
+        ObjectProvider<Registration> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(self);
+        return provider;
+    }
+
+    private static ServiceInstance instance(String instanceId) {
+        return new DefaultServiceInstance(instanceId, SERVICE_ID, instanceId, 8082, false);
+    }
+
+    private static double[] centreOf(String region, GeoBounds bounds, int precision) {
+        double height = Geohash.cellHeight(precision);
+        double width = Geohash.cellWidth(precision);
+        for (double lat = Math.floor(bounds.minLatitude() / height) * height + height / 2;
+                lat <= bounds.maxLatitude() + height; lat += height) {
+            for (double lon = Math.floor(bounds.minLongitude() / width) * width + width / 2;
+                    lon <= bounds.maxLongitude() + width; lon += width) {
+                if (Geohash.encode(lat, lon, precision).equals(region)) {
+                    return new double[] {lat, lon};
+                }
+            }
+        }
+        throw new IllegalArgumentException("No cell named " + region);
+    }
+}
@@ -0,0 +1,193 @@
+package com.socialize.geolocation.store;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.ingest.LocationPing;
+import com.socialize.geolocation.model.dto.LocationHistoryDTO;
+import com.socialize.geolocation.store.RecentHistoryWindow.RecentHistoryPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentHistoryWindowTest {
+
+    private static final Long USER_ID = 7L;
+
+    private LocationProperties properties;
+
+    // Rows from before the window was created are never taken
+    private final LocalDateTime base = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+
+    @BeforeEach
+    void setUp() {
+        properties = new LocationProperties();
+        properties.setHistoryWindowMaxMb(1);
+    }
+
+    @Test
+    void disabledWithRedisStoreOrSharding() {
+        properties.setStore("redis");
+        assertThat(newWindow().isEnabled()).isFalse();
+
+        properties.setStore("local");
+        properties.setShardingEnabled(true);
+        RecentHistoryWindow window = newWindow();
+        window.append(List.of(ping(0)), new long[] {1});
+
+        assertThat(window.isEnabled()).isFalse();
+        assertThat(window.findPage(USER_ID, base.minusSeconds(1), 0, 10)).isEmpty();
+    }
+
+    @Test
+    void servesPagesNewestFirstWithExactTotal() {
+        RecentHistoryWindow window = newWindow();
+        appendSeconds(window, 0, 100);
+
+        RecentHistoryPage first = window.findPage(USER_ID, base.minusSeconds(1), 0, 10).orElseThrow();
+        assertThat(first.total()).isEqualTo(100);
+        assertThat(first.coveredSince()).isNull();
+        assertThat(first.content()).extracting(LocationHistoryDTO::getId)
+            .containsExactly(100L, 99L, 98L, 97L, 96L, 95L, 94L, 93L, 92L, 91L);
+        assertThat(first.content().get(0).getTimestamp()).isEqualTo(base.plusSeconds(99));
+
+        RecentHistoryPage last = window.findPage(USER_ID, base.minusSeconds(1), 9, 10).orElseThrow();
+        assertThat(last.content()).extracting(LocationHistoryDTO::getId)
+            .containsExactly(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+
+        assertThat(window.findPage(USER_ID, base.minusSeconds(1), 10, 10).orElseThrow().content()).isEmpty();
+    }
+
+    @Test
+    void countsOnlyRowsAfterSince() {
+        RecentHistoryWindow window = newWindow();
+        appendSeconds(window, 0, 100);
+
+        RecentHistoryPage page = window.findPage(USER_ID, base.plusSeconds(49), 0, 100).orElseThrow();
+
+        assertThat(page.total()).isEqualTo(50);
+        assertThat(page.content()).hasSize(50);
+        assertThat(page.content().get(49).getTimestamp()).isEqualTo(base.plusSeconds(50));
+    }
+
+    @Test
+    void keepsUnknownIdsAndAccuracyAsNull() {
+        RecentHistoryWindow window = newWindow();
+        LocationPing ping = new LocationPing(USER_ID, 48.85, 2.35, null, null, null, null, null, null, base);
+        window.append(List.of(ping), new long[] {-1});
+
+        LocationHistoryDTO row = window.findPage(USER_ID, base.minusSeconds(1), 0, 1).orElseThrow().content().get(0);
+
+        assertThat(row.getId()).isNull();
+        assertThat(row.getAccuracy()).isNull();
+        assertThat(row.getLatitude()).isEqualTo(48.85);
+    }
+
+    @Test
+    void sinceBeforeCoverageOnlyServesPagesInsideTheWindow() {
+        RecentHistoryWindow window = newWindow();
+        appendSeconds(window, 0, 30);
+        LocalDateTime beforeStartup = LocalDateTime.now().minusHours(1);
+
+        RecentHistoryPage page = window.findPage(USER_ID, beforeStartup, 1, 10).orElseThrow();
+        assertThat(page.coveredSince()).isNotNull().isBefore(base);
+        assertThat(page.total()).isEqualTo(30);
+
+        // The third page would need rows older than the window
+        assertThat(window.findPage(USER_ID, beforeStartup, 2, 11)).isEmpty();
+    }
+
+    @Test
+    void missesUsersWithoutRows() {
+        assertThat(newWindow().findPage(USER_ID, base, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void outOfOrderRowRestartsCoverageAfterNewestRow() {
+        RecentHistoryWindow window = newWindow();
+        appendSeconds(window, 0, 3);
+        window.append(List.of(ping(1)), new long[] {50});
+
+        // Everything seen so far is dropped rather than served out of order
+        assertThat(window.findPage(USER_ID, base.minusSeconds(1), 0, 10)).isEmpty();
+
+        window.append(List.of(ping(5)), new long[] {51});
+        // Rows older than the new coverage start stay in MySQL only
+        window.append(List.of(ping(2)), new long[] {52});
+
+        RecentHistoryPage page = window.findPage(USER_ID, base.plusSeconds(3), 0, 10).orElseThrow();
+        assertThat(page.coveredSince()).isNull();
+        assertThat(page.content()).extracting(LocationHistoryDTO::getId).containsExactly(51L);
+        assertThat(window.findPage(USER_ID, base.plusSeconds(2), 0, 10)).isEmpty();
+    }
+
+    @Test
+    void fullWindowFallsBackToMySql() {
+        properties.setHistoryWindowMaxMb(0);
+        RecentHistoryWindow window = newWindow();
+        appendSeconds(window, 0, 5);
+
+        assertThat(window.findPage(USER_ID, base.minusSeconds(1), 0, 10)).isEmpty();
+        // Coverage moved past the rows that did not fit
+        assertThat(window.findPage(USER_ID, base.plusSeconds(5), 0, 10).orElseThrow().total()).isZero();
+    }
+
+    @Test
+    void evictionReleasesWholeChunksAndMovesCoverage() {
+        // A negative window puts the cutoff two hours ahead, as if the clock had moved on
+        properties.setHistoryWindowHours(-2);
+        RecentHistoryWindow window = newWindow();
+        appendSeconds(window, 0, 64);
+        LocalDateTime later = base.plusHours(3);
+        window.append(List.of(ping(later, 0), ping(later, 1)), new long[] {65, 66});
+
+        window.evictExpired();
+
+        RecentHistoryPage page = window.findPage(USER_ID, base.minusSeconds(1), 0, 2).orElseThrow();
+        assertThat(page.content()).extracting(LocationHistoryDTO::getId).containsExactly(66L, 65L);
+        assertThat(page.coveredSince()).isAfter(base.plusSeconds(63));
+        assertThat(window.findPage(USER_ID, base.minusSeconds(1), 0, 3)).isEmpty();
+        assertThat(window.findPage(USER_ID, later.minusSeconds(1), 0, 3).orElseThrow().total()).isEqualTo(2);
+    }
+
+    @Test
+    void evictionRetiresUsersWithNothingLeft() {
+        properties.setHistoryWindowHours(-2);
+        RecentHistoryWindow window = newWindow();
+        appendSeconds(window, 0, 10);
+
+        window.evictExpired();
+
+        assertThat(window.findPage(USER_ID, base.plusHours(3), 0, 10)).isEmpty();
+    }
+
+    private RecentHistoryWindow newWindow() {
+        return new RecentHistoryWindow(properties, new SimpleMeterRegistry());
+    }
+
+    /**
+     * One row per second from {@code from}, ids counting up from 1 + from
+     */
+    private void appendSeconds(RecentHistoryWindow window, int from, int count) {
+        List<LocationPing> pings = new ArrayList<>(count);
+        for (int second = from; second < from + count; second++) {
+            pings.add(ping(second));
+        }
+        window.append(pings, LongStream.rangeClosed(from + 1, from + count).toArray());
+    }
+
+    private LocationPing ping(int second) {
+        return ping(base, second);
+    }
+
+    private LocationPing ping(LocalDateTime start, int second) {
+        return new LocationPing(USER_ID, 48.85 + second * 1e-4, 2.35, 10.0, null, null, null,
+            null, null, start.plusSeconds(second));
+    }
+}
@@ -0,0 +1,165 @@
+package com.socialize.geolocation.store;
+
+import com.socialize.geolocation.config.LocationProperties;
+import com.socialize.geolocation.index.GeoBounds;
+import com.socialize.geolocation.index.IndexedLocation;
+import com.socialize.geolocation.index.NearbyCandidate;
+import com.socialize.geolocation.repository.IndexedLocationRepository;
+import com.socialize.geolocation.service.DistanceCalculator;
+import com.socialize.geolocation.shard.ShardRing;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the Redis store against a real Redis in a container; skipped when
+ * Docker is not available
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisCurrentLocationStoreTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+        new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private LocationProperties properties;
+    private RedisCurrentLocationStore store;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        properties = new LocationProperties();
+        store = new RedisCurrentLocationStore(redisTemplate, mock(IndexedLocationRepository.class),
+            new DistanceCalculator(properties), properties, mock(ShardRing.class));
+    }
+
+    @Test
+    void upsertThenGetReturnsStoredPosition() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        store.upsert(new IndexedLocation(1L, 52.52, 13.405, 8.0, now));
+
+        Optional<IndexedLocation> stored = store.get(1L);
+
+        assertThat(stored).isPresent();
+        assertThat(stored.get().latitude()).isCloseTo(52.52, within());
+        assertThat(stored.get().longitude()).isCloseTo(13.405, within());
+        assertThat(stored.get().accuracy()).isEqualTo(8.0);
+        assertThat(stored.get().timestamp()).isEqualTo(now);
+    }
+
+    @Test
+    void olderReadingDoesNotReplaceNewerOne() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        store.upsert(new IndexedLocation(1L, 52.52, 13.405, 8.0, now));
+        store.upsert(new IndexedLocation(1L, 48.85, 2.35, 5.0, now.minusMinutes(1)));
+
+        assertThat(store.get(1L).orElseThrow().latitude()).isCloseTo(52.52, within());
+    }
+
+    @Test
+    void missingAccuracyRoundTripsAsNull() {
+        store.upsert(new IndexedLocation(1L, 52.52, 13.405, null, LocalDateTime.now()));
+
+        assertThat(store.get(1L).orElseThrow().accuracy()).isNull();
+    }
+
+    @Test
+    void removeDeletesPosition() {
+        store.upsert(new IndexedLocation(1L, 52.52, 13.405, 8.0, LocalDateTime.now()));
+
+        store.remove(1L);
+
+        assertThat(store.get(1L)).isEmpty();
+    }
+
+    @Test
+    void radiusQueriesExcludeCallerAndFarUsers() {
+        LocalDateTime now = LocalDateTime.now();
+        store.upsert(new IndexedLocation(1L, 52.5200, 13.4050, 8.0, now));
+        store.upsert(new IndexedLocation(2L, 52.5210, 13.4050, 8.0, now));  // ~110 m north
+        store.upsert(new IndexedLocation(3L, 52.5300, 13.4050, 8.0, now));  // ~1.1 km north
+        store.upsert(new IndexedLocation(4L, 48.8566, 2.3522, 8.0, now));   // Paris
+
+        List<NearbyCandidate> nearby = store.findWithinRadius(52.52, 13.405, 2000, 1L);
+
+        assertThat(nearby).extracting(candidate -> candidate.location().userId()).containsExactly(2L, 3L);
+        assertThat(nearby.get(0).distance()).isLessThan(nearby.get(1).distance());
+        assertThat(store.countWithinRadius(52.52, 13.405, 2000, 1L)).isEqualTo(2);
+        assertThat(store.countWithinRadius(52.52, 13.405, 500, null)).isEqualTo(2);
+    }
+
+    @Test
+    void countStopsAtConfiguredCap() {
+        LocalDateTime now = LocalDateTime.now();
+        for (long userId = 1; userId <= 20; userId++) {
+            store.upsert(new IndexedLocation(userId, 52.52 + userId * 0.0001, 13.405, 8.0, now));
+        }
+        properties.setMaxCountResults(5);
+
+        assertThat(store.countWithinRadius(52.52, 13.405, 5000, null)).isEqualTo(5);
+    }
+
+    @Test
+    void nearestReturnsKClosest() {
+        LocalDateTime now = LocalDateTime.now();
+        store.upsert(new IndexedLocation(1L, 52.5200, 13.4050, 8.0, now));
+        store.upsert(new IndexedLocation(2L, 52.5210, 13.4050, 8.0, now));
+        store.upsert(new IndexedLocation(3L, 52.5300, 13.4050, 8.0, now));
+
+        List<NearbyCandidate> nearest = store.findNearest(52.52, 13.405, 1, 5000, 1L);
+
+        assertThat(nearest).extracting(candidate -> candidate.location().userId()).containsExactly(2L);
+    }
+
+    @Test
+    void boundsQueryTrimsToExactBox() {
+        LocalDateTime now = LocalDateTime.now();
+        store.upsert(new IndexedLocation(1L, 52.5200, 13.4050, 8.0, now));
+        store.upsert(new IndexedLocation(2L, 52.5250, 13.4100, 8.0, now));
+        store.upsert(new IndexedLocation(3L, 52.5400, 13.4050, 8.0, now));
+
+        GeoBounds bounds = new GeoBounds(52.51, 13.40, 52.53, 13.42);
+        List<IndexedLocation> inside = store.findInBounds(bounds, 1L);
+
+        assertThat(inside).extracting(IndexedLocation::userId).containsExactly(2L);
+    }
+
+    private static Offset<Double> within() {
+        return Offset.offset(1e-4);
+    }
+}
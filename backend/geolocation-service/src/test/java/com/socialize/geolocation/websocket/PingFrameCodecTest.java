@@ -0,0 +1,99 @@
+package com.socialize.geolocation.websocket;
+
+import com.socialize.geolocation.model.dto.LocationUpdateRequest;
+import com.socialize.geolocation.websocket.PingFrameCodec.Status;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PingFrameCodecTest {
+
+    @Test
+    void decodesPingsInFrameOrder() {
+        LocalDateTime readAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+        long readAtMillis = readAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        ByteBuffer frame = ByteBuffer.allocate(2 * PingFrameCodec.PING_SIZE)
+            .putDouble(48.8566).putDouble(2.3522).putLong(readAtMillis)
+            .putFloat(12.5f).putFloat(35.0f).putFloat(1.5f).putFloat(90.0f)
+            .putDouble(-33.87).putDouble(151.21).putLong(0L)
+            .putFloat(8.0f).putFloat(Float.NaN).putFloat(Float.NaN).putFloat(Float.NaN)
+            .flip();
+
+        List<LocationUpdateRequest> pings = PingFrameCodec.decode(frame);
+
+        assertThat(pings).hasSize(2);
+        LocationUpdateRequest first = pings.get(0);
+        assertThat(first.getLatitude()).isEqualTo(48.8566);
+        assertThat(first.getLongitude()).isEqualTo(2.3522);
+        assertThat(first.getTimestamp()).isEqualTo(readAt);
+        assertThat(first.getAccuracy()).isEqualTo(12.5);
+        assertThat(first.getAltitude()).isEqualTo(35.0);
+        assertThat(first.getSpeed()).isEqualTo(1.5);
+        assertThat(first.getHeading()).isEqualTo(90.0);
+
+        // Zero time means the time of receipt, NaN means unknown
+        LocationUpdateRequest second = pings.get(1);
+        assertThat(second.getLatitude()).isEqualTo(-33.87);
+        assertThat(second.getTimestamp()).isNull();
+        assertThat(second.getAccuracy()).isEqualTo(8.0);
+        assertThat(second.getAltitude()).isNull();
+        assertThat(second.getSpeed()).isNull();
+        assertThat(second.getHeading()).isNull();
+        assertThat(frame.hasRemaining()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 39, 41, 79, 81})
+    void rejectsFramesThatAreNotWholePings(int size) {
+        ByteBuffer frame = ByteBuffer.allocate(size);
+
+        assertThatThrownBy(() -> PingFrameCodec.decode(frame))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining(size + " bytes");
+    }
+
+    @Test
+    void encodesReply() {
+        ByteBuffer reply = PingFrameCodec.encodeReply(Status.THROTTLED, 3, 45, 120.5);
+
+        assertThat(reply.remaining()).isEqualTo(PingFrameCodec.REPLY_SIZE);
+        assertThat(reply.get()).isEqualTo((byte) Status.THROTTLED.ordinal());
+        assertThat(reply.getInt()).isEqualTo(3);
+        assertThat(reply.getInt()).isEqualTo(45);
+        assertThat(reply.getFloat()).isEqualTo(120.5f);
+        assertThat(reply.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void statusCodesAreStable() {
+        // Clients switch on the byte value, so the order is part of the protocol
+        assertThat(Status.values()).containsExactly(Status.OK, Status.THROTTLED, Status.OVERLOADED, Status.INVALID);
+    }
+
+    @Test
+    void validatesCoordinatesAndAccuracy() {
+        assertThat(PingFrameCodec.isValid(request(48.85, 2.35, 10.0))).isTrue();
+        assertThat(PingFrameCodec.isValid(request(90.0, -180.0, 0.0))).isTrue();
+        assertThat(PingFrameCodec.isValid(request(90.5, 2.35, 10.0))).isFalse();
+        assertThat(PingFrameCodec.isValid(request(48.85, 180.5, 10.0))).isFalse();
+        assertThat(PingFrameCodec.isValid(request(48.85, 2.35, -1.0))).isFalse();
+        assertThat(PingFrameCodec.isValid(request(48.85, 2.35, null))).isFalse();
+        assertThat(PingFrameCodec.isValid(request(Double.NaN, 2.35, 10.0))).isFalse();
+    }
+
+    private static LocationUpdateRequest request(double latitude, double longitude, Double accuracy) {
+        return LocationUpdateRequest.builder()
+            .latitude(latitude)
+            .longitude(longitude)
+            .accuracy(accuracy)
+            .build();
+    }
+}
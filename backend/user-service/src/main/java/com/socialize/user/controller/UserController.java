@@ -3,6 +3,7 @@ package com.socialize.user.controller;
 
 import com.socialize.common.dto.ApiResponse;
 import com.socialize.common.dto.LocationDTO;
+import com.socialize.user.model.dto.BatchUserRequest;
 import com.socialize.user.model.dto.UpdateLocationRequest;
 import com.socialize.user.model.dto.UpdateProfileRequest;
 import com.socialize.user.model.dto.UserDTO;
@@ -13,6 +14,8 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -36,6 +39,13 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(user));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<UserDTO>>> getUsersByIds(
+            @Valid @RequestBody BatchUserRequest request) {
+        List<UserDTO> users = userService.getUserProfiles(request.getUserIds());
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
+
     @PutMapping("/me")
     public ResponseEntity<ApiResponse<UserDTO>> updateProfile(
             @AuthenticationPrincipal UserDetails userDetails,
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,6 +20,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.location WHERE u.id = :id")
     Optional<User> findByIdWithLocation(Long id);
 
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.location WHERE u.id IN :ids")
+    List<User> findAllByIdWithLocation(List<Long> ids);
+
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.location WHERE u.email = :email")
     Optional<User> findByEmailWithLocation(String email);
 }
\ No newline at end of file
@@ -12,6 +12,8 @@ import com.socialize.user.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class UserService {
 
@@ -29,6 +31,12 @@ public class UserService {
         return mapToDTO(user);
     }
 
+    public List<UserDTO> getUserProfiles(List<Long> userIds) {
+        return userRepository.findAllByIdWithLocation(userIds).stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
     public UserDTO getUserByEmail(String email) {
         User user = userRepository.findByEmailWithLocation(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));